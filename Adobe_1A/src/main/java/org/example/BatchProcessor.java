@@ -0,0 +1,120 @@
+package org.example;
+
+import org.example.core.Settings;
+import org.example.core.VirtualThreads;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans PDF documents out across a worker pool. At most {@code maxInFlight} documents are being
+ * processed, and therefore held open, at any time: the submitting thread blocks until a slot frees up.
+ * A failure in one document is logged and counted without affecting the others.
+ */
+public class BatchProcessor implements AutoCloseable {
+
+    public enum Outcome {
+        PROCESSED, SKIPPED, FAILED
+    }
+
+    @FunctionalInterface
+    public interface DocumentTask {
+        Outcome process(Path pdfFile) throws Exception;
+    }
+
+    public static class BatchResult {
+        public int processed;
+        public int skipped;
+        public int failed;
+
+        @Override
+        public String toString() {
+            return String.format("%d processed, %d skipped, %d failed", processed, skipped, failed);
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+
+    public BatchProcessor(int workerThreads, int maxInFlight, boolean virtualThreads) {
+        if (virtualThreads) {
+            this.executor = VirtualThreads.newPerTaskExecutor(() -> {
+                System.err.println("Virtual threads are not available on this JVM, using " + workerThreads + " platform threads.");
+                return Executors.newFixedThreadPool(workerThreads);
+            });
+        } else {
+            this.executor = Executors.newFixedThreadPool(workerThreads);
+        }
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    /**
+     * Reads {@code PDF_WORKER_THREADS} (default: available processors), {@code PDF_MAX_IN_FLIGHT}
+     * (default: worker threads) and {@code PDF_THREAD_MODE} ({@code platform} or {@code virtual}).
+     */
+    public static BatchProcessor fromEnvironment() {
+        int workerThreads = Settings.intFromEnv("PDF_WORKER_THREADS", Runtime.getRuntime().availableProcessors());
+        int maxInFlight = Settings.intFromEnv("PDF_MAX_IN_FLIGHT", workerThreads);
+        boolean virtualThreads = "virtual".equalsIgnoreCase(System.getenv("PDF_THREAD_MODE"));
+        return new BatchProcessor(workerThreads, maxInFlight, virtualThreads);
+    }
+
+    public BatchResult run(List<Path> pdfFiles, DocumentTask task) throws InterruptedException {
+        List<Future<Outcome>> futures = new ArrayList<>(pdfFiles.size());
+        for (Path pdfFile : pdfFiles) {
+            inFlight.acquire();
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return task.process(pdfFile);
+                    } catch (Exception e) {
+                        System.err.println("Error processing " + pdfFile.getFileName() + ": " + e.getMessage());
+                        e.printStackTrace();
+                        return Outcome.FAILED;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < futures.size(); i++) {
+            Outcome outcome;
+            try {
+                outcome = futures.get(i).get();
+            } catch (ExecutionException e) {
+                System.err.println("Error processing " + pdfFiles.get(i).getFileName() + ": " + e.getCause());
+                outcome = Outcome.FAILED;
+            }
+            switch (outcome) {
+                case PROCESSED:
+                    result.processed++;
+                    break;
+                case SKIPPED:
+                    result.skipped++;
+                    break;
+                default:
+                    result.failed++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+}
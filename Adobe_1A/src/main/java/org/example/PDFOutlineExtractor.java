@@ -1,25 +1,32 @@
 package org.example;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDDocumentInformation;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import org.example.core.DirectoryWatcher;
+import org.example.core.DocumentLayout;
+import org.example.core.DocumentLoader;
+import org.example.core.DocumentOutline;
+import org.example.core.ExtractionServer;
+import org.example.core.OutlineCache;
+import org.example.core.OutlineData;
+import org.example.core.OutlineExtractor;
+import org.example.core.PageParallelExtractor;
+import org.example.core.RunMetrics;
+import org.example.core.Settings;
+import org.example.core.StreamingOutlineExtractor;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class PDFOutlineExtractor extends PDFTextStripper {
+public class PDFOutlineExtractor {
 
     private static final String INPUT_DIR = System.getenv("PDF_INPUT_DIR") != null
             ? System.getenv("PDF_INPUT_DIR")
@@ -29,161 +36,9 @@ public class PDFOutlineExtractor extends PDFTextStripper {
 
     private static final String OUTPUT_DIR = System.getenv("PDF_OUTPUT_DIR") != null ?
             System.getenv("PDF_OUTPUT_DIR") : "D:/Adobe_Hackathone/Adobe_1A/output";
-    private final List<TextLine> textLines = new ArrayList<>();
-    private int currentPageNum;
 
-    public PDFOutlineExtractor() throws IOException {
-        super.setSortByPosition(true);
-    }
-
-    public static class TextLine {
-        public String text;
-        public float y;
-        public float x;
-        public float maxX;
-        public float fontSize;
-        public boolean isBold;
-        public int page;
-
-        public TextLine(String text, float y, float x, float maxX, float fontSize, boolean isBold, int page) {
-            this.text = text.trim();
-            this.y = y;
-            this.x = x;
-            this.maxX = maxX;
-            this.fontSize = fontSize;
-            this.isBold = isBold;
-            this.page = page;
-        }
-
-        @Override
-        public String toString() {
-            return String.format("Page %d, Y=%.2f, X=%.2f, Size=%.2f, Bold=%b: \"%s\"", page, y, x, fontSize, isBold, text);
-        }
-    }
-
-    @Override
-    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
-        if (!textPositions.isEmpty()) {
-            TextPosition firstChar = textPositions.get(0);
-            TextPosition lastChar = textPositions.get(textPositions.size() - 1);
-
-            float currentY = firstChar.getYDirAdj();
-            float minX = firstChar.getXDirAdj();
-            float maxX = lastChar.getEndX();
-            float fontSize = firstChar.getFontSizeInPt();
-
-            String fontName = null;
-            if (firstChar.getFont() != null) {
-                fontName = firstChar.getFont().getName();
-            }
-            boolean isBold = (fontName != null) && fontName.toLowerCase().contains("bold");
-
-            if (!textLines.isEmpty()) {
-                TextLine lastLine = textLines.get(textLines.size() - 1);
-                if (lastLine.page == currentPageNum &&
-                        Math.abs(lastLine.y - currentY) < 1.0 &&
-                        (minX - lastLine.maxX < 5)
-                ) {
-                    lastLine.text += text;
-                    lastLine.maxX = maxX;
-                    lastLine.fontSize = Math.max(lastLine.fontSize, fontSize);
-                    lastLine.isBold = lastLine.isBold || isBold;
-                    return;
-                }
-            }
-            textLines.add(new TextLine(text, currentY, minX, maxX, fontSize, isBold, currentPageNum));
-        }
-    }
-
-
-    @Override
-    protected void startPage(PDPage page) throws IOException {
-        currentPageNum = getCurrentPageNo();
-        super.startPage(page);
-    }
-
-    public List<OutlineData> extractHeadings(PDDocument document) throws IOException {
-        textLines.clear();
-        super.document = document;
-        super.startPage(document.getPages().get(0));
-        super.getText(document);
-
-        textLines.sort(Comparator
-                .comparingInt((TextLine line) -> line.page)
-                .thenComparingDouble(line -> line.y));
-
-        List<OutlineData> extractedHeadings = new ArrayList<>();
-
-        float avgBodyFontSize = calculateAverageBodyFontSize(textLines);
-        if (avgBodyFontSize == 0) avgBodyFontSize = 10.0f;
-
-        float h1MinSize = avgBodyFontSize * 1.6f;
-        float h2MinSize = avgBodyFontSize * 1.3f;
-        float h3MinSize = avgBodyFontSize * 1.1f;
-
-        for (TextLine line : textLines) {
-            if (line.isBold) {
-                if (line.fontSize >= h1MinSize) {
-                    extractedHeadings.add(new OutlineData("H1", line.text, line.page));
-                } else if (line.fontSize >= h2MinSize) {
-                    extractedHeadings.add(new OutlineData("H2", line.text, line.page));
-                } else if (line.fontSize >= h3MinSize) {
-                    extractedHeadings.add(new OutlineData("H3", line.text, line.page));
-                }
-            } else {
-                if (line.fontSize > h1MinSize * 1.2) {
-                    extractedHeadings.add(new OutlineData("H1", line.text, line.page));
-                } else if (line.fontSize > h2MinSize * 1.2) {
-                    extractedHeadings.add(new OutlineData("H2", line.text, line.page));
-                }
-            }
-        }
-        return extractedHeadings;
-    }
-
-    private float calculateAverageBodyFontSize(List<TextLine> lines) {
-        List<Float> bodyFontSizes = lines.stream()
-                                         .filter(line -> line.fontSize >= 8.0f && line.fontSize <= 14.0f)
-                                         .map(line -> line.fontSize)
-                                         .collect(Collectors.toList());
-
-        if (bodyFontSizes.isEmpty()) {
-            return 0;
-        }
-
-        Map<Float, Long> fontSizeCounts = bodyFontSizes.stream()
-                                                       .collect(Collectors.groupingBy(s -> s, Collectors.counting()));
-
-        return fontSizeCounts.entrySet().stream()
-                             .max(Map.Entry.comparingByValue())
-                             .map(Map.Entry::getKey)
-                             .orElse(0.0f);
-    }
-
-    private String extractTitle(PDDocument document) throws IOException {
-        PDDocumentInformation info = document.getDocumentInformation();
-        if (info != null && info.getTitle() != null && !info.getTitle().trim().isEmpty()) {
-            return info.getTitle().trim();
-        }
-
-        if (!textLines.isEmpty()) {
-            float maxFontSize = 0;
-            String heuristicTitle = "Untitled Document";
-            for (TextLine line : textLines) {
-                if (line.page == 1) {
-                    if (line.fontSize > maxFontSize) {
-                        maxFontSize = line.fontSize;
-                        heuristicTitle = line.text;
-                    }
-                } else {
-                    break;
-                }
-            }
-            return heuristicTitle;
-        }
-
-        return "Untitled Document";
-    }
+    private static final boolean STREAMING_MODE = Settings.booleanFromEnv("PDF_STREAMING_MODE");
+    private static final boolean WATCH_MODE = DirectoryWatcher.isEnabled();
 
     public static void main(String[] args) {
         System.out.println("Starting PDF Outline Extractor...");
@@ -191,6 +46,16 @@ public class PDFOutlineExtractor extends PDFTextStripper {
         Path inputPath = Paths.get(INPUT_DIR);
         Path outputPath = Paths.get(OUTPUT_DIR);
 
+        if (ExtractionServer.isEnabled()) {
+            try {
+                runServer(inputPath);
+            } catch (IOException e) {
+                System.err.println("Error starting server: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return;
+        }
+
         try {
             if (!Files.exists(outputPath)) {
                 Files.createDirectories(outputPath);
@@ -201,96 +66,256 @@ public class PDFOutlineExtractor extends PDFTextStripper {
             return;
         }
 
-        try {
+        // The watcher is registered before the initial scan, so a PDF that arrives while the first batch
+        // runs is not missed. A PDF seen by both is processed twice, which rewrites the same output.
+        try (DirectoryWatcher watcher = WATCH_MODE ? DirectoryWatcher.fromEnvironment(inputPath) : null) {
             List<Path> pdfFiles = Files.walk(inputPath)
                                        .filter(Files::isRegularFile)
                                        .filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
+                                       .sorted()
                                        .collect(Collectors.toList());
 
             if (pdfFiles.isEmpty()) {
                 System.out.println("No PDF files found in " + INPUT_DIR);
-                return;
+                if (!WATCH_MODE) {
+                    return;
+                }
+            } else {
+                System.out.println("Found " + pdfFiles.size() + " PDF(s) to process.");
             }
 
-            System.out.println("Found " + pdfFiles.size() + " PDF(s) to process.");
-
             ObjectMapper mapper = new ObjectMapper();
             mapper.enable(SerializationFeature.INDENT_OUTPUT);
 
-            for (Path pdfFile : pdfFiles) {
-                String fileName = pdfFile.getFileName().toString();
-                String outputFileName = fileName.substring(0, fileName.lastIndexOf(".")) + ".json";
-                Path outputFile = outputPath.resolve(outputFileName);
-
-                System.out.println("Processing: " + fileName);
+            OutlineCache cache = OutlineCache.fromEnvironment();
+            RunMetrics metrics = RunMetrics.fromEnvironment("1A");
+            DocumentLoader loader = DocumentLoader.fromEnvironment(STREAMING_MODE);
+
+            try (BatchProcessor batch = BatchProcessor.fromEnvironment();
+                 PageParallelExtractor pageExtractor = PageParallelExtractor.fromEnvironment()) {
+                BatchProcessor.DocumentTask task = pdfFile -> {
+                    RunMetrics.Timer timer = metrics.startDocument(pdfFile.getFileName().toString());
+                    BatchProcessor.Outcome outcome = BatchProcessor.Outcome.FAILED;
+                    try {
+                        outcome = processDocument(pdfFile, outputPath, mapper, loader, pageExtractor, cache, metrics, timer);
+                        return outcome;
+                    } finally {
+                        timer.finish(outcome.name().toLowerCase());
+                    }
+                };
+                if (!pdfFiles.isEmpty()) {
+                    BatchProcessor.BatchResult result = batch.run(uniqueByOutputName(pdfFiles), task);
+                    System.out.println("Batch complete: " + result);
+                    writeRunReport(metrics, mapper);
+                }
 
-                PDDocument document = null;
-                try {
-                    document = PDDocument.load(pdfFile.toFile());
+                if (watcher != null) {
+                    watcher.run(changedFiles -> {
+                        List<Path> present = changedFiles.stream()
+                                                         .filter(Files::isRegularFile)
+                                                         .collect(Collectors.toList());
+                        if (!present.isEmpty()) {
+                            System.out.println("Detected " + present.size() + " new or modified PDF(s).");
+                            BatchProcessor.BatchResult result = batch.run(uniqueByOutputName(present), task);
+                            System.out.println("Batch complete: " + result);
+                            writeRunReport(metrics, mapper);
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while processing PDF files.");
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing PDF files or general I/O error: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-                    if (document.getNumberOfPages() > 50) {
-                        System.out.println("Skipping " + fileName + ": Document exceeds 50 pages.");
-                        continue;
-                    }
+        System.out.println("PDF Outline Extractor finished.");
+    }
 
-                    PDFOutlineExtractor extractor = new PDFOutlineExtractor();
+    private static String outputFileName(Path pdfFile) {
+        String fileName = pdfFile.getFileName().toString();
+        return fileName.substring(0, fileName.lastIndexOf(".")) + ".json";
+    }
 
-                    extractor.getText(document);
+    /**
+     * Documents in different sub-folders may map to the same output file. Keep the last one in path
+     * order, as the sequential loop did, so concurrent workers never race on the same JSON file.
+     */
+    private static List<Path> uniqueByOutputName(List<Path> pdfFiles) {
+        Map<String, Path> byOutputName = new LinkedHashMap<>();
+        for (Path pdfFile : pdfFiles) {
+            Path previous = byOutputName.remove(outputFileName(pdfFile));
+            if (previous != null) {
+                System.out.println("Skipping " + previous + ": output name clashes with " + pdfFile);
+            }
+            byOutputName.put(outputFileName(pdfFile), pdfFile);
+        }
+        return new ArrayList<>(byOutputName.values());
+    }
 
-                    String title = extractor.extractTitle(document);
-                    List<OutlineData> headings = extractor.extractHeadings(document);
+    private static void writeRunReport(RunMetrics metrics, ObjectMapper mapper) {
+        try {
+            metrics.writeReport(mapper);
+        } catch (IOException e) {
+            System.err.println("Error writing run report: " + e.getMessage());
+        }
+    }
 
-                    DocumentOutline docOutline = new DocumentOutline(title, headings);
-                    mapper.writeValue(outputFile.toFile(), docOutline);
+    private static BatchProcessor.Outcome processDocument(Path pdfFile, Path outputPath, ObjectMapper mapper,
+                                                          DocumentLoader loader, PageParallelExtractor pageExtractor, OutlineCache cache,
+                                                          RunMetrics metrics, RunMetrics.Timer timer) {
+        String fileName = pdfFile.getFileName().toString();
+        String outputFileName = outputFileName(pdfFile);
+        Path outputFile = outputPath.resolve(outputFileName);
 
-                    System.out.println("Successfully processed " + fileName + " -> " + outputFileName);
+        System.out.println("Processing: " + fileName);
 
-                } catch (IOException e) {
-                    System.err.println("Error processing " + fileName + ": " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    if (document != null) {
-                        try {
-                            document.close();
-                        } catch (IOException e) {
-                            System.err.println("Error closing document " + fileName + ": " + e.getMessage());
-                        }
+        DocumentLoader.OpenDocument opened = null;
+        try {
+            String cacheKey = null;
+            if (cache != null) {
+                cacheKey = cache.key(pdfFile);
+                OutlineCache.Entry cached = cache.get(cacheKey);
+                if (cached != null) {
+                    metrics.increment(RunMetrics.Counter.CACHE_HITS);
+                    if (!STREAMING_MODE && cached.pageCount > 50) {
+                        System.out.println("Skipping " + fileName + ": Document exceeds 50 pages.");
+                        return BatchProcessor.Outcome.SKIPPED;
                     }
+                    mapper.writeValue(outputFile.toFile(), cached.outline);
+                    timer.lap(RunMetrics.Stage.SERIALIZE);
+                    System.out.println("Successfully processed " + fileName + " -> " + outputFileName + " (cached)");
+                    return BatchProcessor.Outcome.PROCESSED;
                 }
             }
+
+            opened = loader.open(pdfFile);
+            PDDocument document = opened.document;
+            timer.lap(RunMetrics.Stage.LOAD);
+
+            if (!STREAMING_MODE && document.getNumberOfPages() > 50) {
+                System.out.println("Skipping " + fileName + ": Document exceeds 50 pages.");
+                return BatchProcessor.Outcome.SKIPPED;
+            }
+
+            DocumentOutline docOutline = extractOutline(document, pdfFile, loader, pageExtractor, metrics, timer);
+            mapper.writeValue(outputFile.toFile(), docOutline);
+            if (cache != null) {
+                cache.put(cacheKey, new OutlineCache.Entry(document.getNumberOfPages(), docOutline));
+            }
+            timer.lap(RunMetrics.Stage.SERIALIZE);
+
+            System.out.println("Successfully processed " + fileName + " -> " + outputFileName);
+            return BatchProcessor.Outcome.PROCESSED;
+
         } catch (IOException e) {
-            System.err.println("Error listing PDF files or general I/O error: " + e.getMessage());
+            System.err.println("Error processing " + fileName + ": " + e.getMessage());
             e.printStackTrace();
+            return BatchProcessor.Outcome.FAILED;
+        } finally {
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing document " + fileName + ": " + e.getMessage());
+                }
+            }
         }
-
-        System.out.println("PDF Outline Extractor finished.");
     }
 
+    /**
+     * One stripping pass over {@code document}, split across page ranges when page-parallel mode applies.
+     * Uploaded documents have no {@code pdfFile} and are always stripped sequentially, as are documents
+     * whose range instances do not fit in the memory budget.
+     */
+    private static DocumentOutline extractOutline(PDDocument document, Path pdfFile, DocumentLoader loader,
+                                                  PageParallelExtractor pageExtractor, RunMetrics metrics,
+                                                  RunMetrics.Timer timer) throws IOException {
+        OutlineExtractor extractor = STREAMING_MODE ? new StreamingOutlineExtractor() : new OutlineExtractor();
+
+        DocumentLayout layout = !STREAMING_MODE && pdfFile != null && pageExtractor != null && pageExtractor.shouldSplit(document.getNumberOfPages())
+                ? pageExtractor.extractLayout(pdfFile, document.getNumberOfPages(), loader)
+                : null;
+        if (layout == null) {
+            layout = extractor.extractLayout(document);
+        }
+        timer.lapLayout(layout);
 
-    @JsonInclude(JsonInclude.Include.NON_NULL)
-    public static class OutlineData {
-        public String level;
-        public String text;
-        public Integer page;
+        String title = extractor.extractTitle(document, layout);
+        List<OutlineData> headings = extractor.extractHeadings(layout);
+        metrics.add(RunMetrics.Counter.HEADINGS, headings.size());
+        timer.lap(RunMetrics.Stage.CLASSIFY);
+        return new DocumentOutline(title, headings);
+    }
 
-        public OutlineData() {} // Default constructor
+    /**
+     * Serves {@code POST /outline} until the process is stopped. The body is either the PDF itself or
+     * empty with a {@code path} query parameter relative to {@code PDF_INPUT_DIR}; the response is the
+     * same outline JSON the batch mode writes.
+     */
+    private static void runServer(Path inputPath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        OutlineCache cache = OutlineCache.fromEnvironment();
+        RunMetrics metrics = RunMetrics.fromEnvironment("1A");
+        PageParallelExtractor pageExtractor = PageParallelExtractor.fromEnvironment();
+        DocumentLoader loader = DocumentLoader.fromEnvironment(STREAMING_MODE);
+
+        ExtractionServer server = ExtractionServer.fromEnvironment(mapper, metrics);
+        server.route("/outline", request -> serveOutline(request, inputPath, loader, pageExtractor, cache, metrics));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (pageExtractor != null) {
+                pageExtractor.close();
+            }
+        }));
 
-        public OutlineData(String level, String text, Integer page) {
-            this.level = level;
-            this.text = text;
-            this.page = page;
-        }
+        RunMetrics warmUpMetrics = new RunMetrics("1A", null);
+        server.start(request -> serveOutline(request, inputPath, loader, pageExtractor, null, warmUpMetrics));
     }
 
-    public static class DocumentOutline {
-        public String title;
-        public List<OutlineData> outline = new ArrayList<>();
+    private static DocumentOutline serveOutline(ExtractionServer.Request request, Path inputPath, DocumentLoader loader,
+                                                PageParallelExtractor pageExtractor, OutlineCache cache, RunMetrics metrics) throws IOException {
+        String path = request.parameter("path");
+        if (path == null && request.body.length == 0) {
+            throw new ExtractionServer.RequestException(400, "Send the PDF as the request body or a path parameter");
+        }
+        Path pdfFile = path != null ? ExtractionServer.resolveWithin(inputPath, path) : null;
+        if (pdfFile != null && !Files.isRegularFile(pdfFile)) {
+            throw new ExtractionServer.RequestException(404, "No such file: " + path);
+        }
 
-        public DocumentOutline() {}
+        RunMetrics.Timer timer = metrics.startDocument(pdfFile != null ? pdfFile.getFileName().toString() : "upload");
+        String outcome = "failed";
+        try {
+            String cacheKey = null;
+            if (cache != null && pdfFile != null) {
+                cacheKey = cache.key(pdfFile);
+                OutlineCache.Entry cached = cache.get(cacheKey);
+                if (cached != null && (STREAMING_MODE || cached.pageCount <= 50)) {
+                    metrics.increment(RunMetrics.Counter.CACHE_HITS);
+                    outcome = "processed";
+                    return cached.outline;
+                }
+            }
 
-        public DocumentOutline(String title, List<OutlineData> outline) {
-            this.title = title;
-            this.outline = outline;
+            try (DocumentLoader.OpenDocument opened = pdfFile != null ? loader.open(pdfFile) : loader.open(request.body, "upload")) {
+                PDDocument document = opened.document;
+                timer.lap(RunMetrics.Stage.LOAD);
+                if (!STREAMING_MODE && document.getNumberOfPages() > 50) {
+                    outcome = "skipped";
+                    throw new ExtractionServer.RequestException(422, "Document exceeds 50 pages");
+                }
+                DocumentOutline outline = extractOutline(document, pdfFile, loader, pageExtractor, metrics, timer);
+                if (cacheKey != null) {
+                    cache.put(cacheKey, new OutlineCache.Entry(document.getNumberOfPages(), outline));
+                }
+                outcome = "processed";
+                return outline;
+            }
+        } finally {
+            timer.finish(outcome);
         }
     }
 }
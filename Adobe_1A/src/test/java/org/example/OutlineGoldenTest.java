@@ -0,0 +1,110 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.core.DocumentLayout;
+import org.example.core.DocumentLoader;
+import org.example.core.DocumentOutline;
+import org.example.core.OutlineExtractor;
+import org.example.core.PageParallelExtractor;
+import org.example.core.StreamingOutlineExtractor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Extracts every PDF of {@code PDF_Folder_Round1A} and compares the JSON, byte for byte, with the
+ * committed file of the same name in {@code output/}. Each extraction mode gets its own test: the
+ * in-memory stripper, streaming mode and page-parallel mode must all reproduce the same outlines.
+ *
+ * <p>When a change is meant to alter outlines, rerun Adobe_1A over the sample folder with
+ * {@code PDF_OUTPUT_DIR=output}, review the diff and commit it together with the change.
+ */
+class OutlineGoldenTest {
+
+    private static final Path SAMPLES = Paths.get("PDF_Folder_Round1A");
+    private static final Path GOLDEN = Paths.get("output");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final DocumentLoader LOADER = new DocumentLoader(true, false, 16L << 20, 64L << 20, null, 0);
+
+    private static PageParallelExtractor pageExtractor;
+
+    @BeforeAll
+    static void startPageExtractor() {
+        pageExtractor = new PageParallelExtractor(2, 1);
+    }
+
+    @AfterAll
+    static void stopPageExtractor() {
+        pageExtractor.close();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> inMemory() throws IOException {
+        return goldenTests(pdf -> extract(pdf, new OutlineExtractor(), false));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> streaming() throws IOException {
+        return goldenTests(pdf -> extract(pdf, new StreamingOutlineExtractor(), false));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> pageParallel() throws IOException {
+        return goldenTests(pdf -> extract(pdf, new OutlineExtractor(), true));
+    }
+
+    private interface Extraction {
+        DocumentOutline extract(Path pdf) throws IOException;
+    }
+
+    private static Stream<DynamicTest> goldenTests(Extraction extraction) throws IOException {
+        List<Path> pdfs;
+        try (Stream<Path> files = Files.list(SAMPLES)) {
+            pdfs = files.filter(file -> file.toString().toLowerCase().endsWith(".pdf")).sorted().collect(Collectors.toList());
+        }
+        assertFalse(pdfs.isEmpty(), "No sample PDFs in " + SAMPLES.toAbsolutePath());
+
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Path pdf : pdfs) {
+            String name = pdf.getFileName().toString();
+            Path golden = GOLDEN.resolve(name.substring(0, name.length() - ".pdf".length()) + ".json");
+            tests.add(DynamicTest.dynamicTest(name, () -> {
+                String expected = Files.readString(golden, StandardCharsets.UTF_8);
+                String actual = MAPPER.writeValueAsString(extraction.extract(pdf));
+                assertEquals(normalizeLineEndings(expected), normalizeLineEndings(actual), golden.toString());
+            }));
+        }
+        return tests.stream();
+    }
+
+    /** The same steps as {@code PDFOutlineExtractor.extractOutline}: one layout pass, then title and headings. */
+    private static DocumentOutline extract(Path pdf, OutlineExtractor extractor, boolean pageParallel) throws IOException {
+        try (DocumentLoader.OpenDocument opened = LOADER.open(pdf)) {
+            int pageCount = opened.document.getNumberOfPages();
+            DocumentLayout layout = pageParallel && pageExtractor.shouldSplit(pageCount)
+                    ? pageExtractor.extractLayout(pdf, pageCount, LOADER)
+                    : extractor.extractLayout(opened.document);
+            return new DocumentOutline(extractor.extractTitle(opened.document, layout), extractor.extractHeadings(layout));
+        }
+    }
+
+    private static String normalizeLineEndings(String json) {
+        return json.replace("\r\n", "\n").trim();
+    }
+}
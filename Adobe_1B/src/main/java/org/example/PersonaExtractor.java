@@ -1,18 +1,33 @@
 package org.example;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.pdfbox.text.TextPosition;
+import org.example.core.DirectoryWatcher;
+import org.example.core.DocumentLayout;
+import org.example.core.DocumentLoader;
+import org.example.core.DocumentOutline;
+import org.example.core.ExtractionServer;
+import org.example.core.OutlineCache;
+import org.example.core.OutlineData;
+import org.example.core.RunMetrics;
+import org.example.core.SectionTextExtractor;
+import org.example.core.Settings;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PersonaExtractor {
 
@@ -25,6 +40,13 @@ public class PersonaExtractor {
     private static final String OUTPUT_DIR = System.getenv("PDF_OUTPUT_DIR") != null ?
             System.getenv("PDF_OUTPUT_DIR") : "D:/Adobe_Hackathone/Adobe_1B/output";
 
+    private static final String QUERY_FILE = "query.json";
+    private static final int SECTION_TEXT_CHARS = SectionTextExtractor.maxSectionCharsFromEnvironment();
+    private static final int TOP_K = Settings.intFromEnv("PDF_TOP_K", Integer.MAX_VALUE);
+    private static final int WORKER_THREADS = Settings.intFromEnv("PDF_WORKER_THREADS", Runtime.getRuntime().availableProcessors());
+    private static final DocumentLoader LOADER = DocumentLoader.fromEnvironment(false);
+    private static final SentenceEmbedder EMBEDDER = loadEmbedder();
+
     public static void main(String[] args) throws IOException {
 
         Path inputPath = Paths.get(INPUT_DIR);
@@ -37,98 +59,295 @@ public class PersonaExtractor {
         ObjectMapper mapper = new ObjectMapper();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
 
-        try (DirectoryStream<Path> languageDirs = Files.newDirectoryStream(inputPath)) {
-            for (Path languageDir : languageDirs) {
-                if (!Files.isDirectory(languageDir)) continue;
-
-                String language = languageDir.getFileName().toString();
-                List<RankedSection> allRankedSections = new ArrayList<>();
-                List<String> processedDocuments = new ArrayList<>();
-
-                List<Path> pdfFiles = Files.walk(languageDir)
-                                           .filter(Files::isRegularFile)
-                                           .filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
-                                           .collect(Collectors.toList());
+        OutlineCache cache = OutlineCache.fromEnvironment();
+        RunMetrics metrics = RunMetrics.fromEnvironment("1B");
 
-                String persona = "Unknown Persona";
-                String jobToBeDone = "Unknown Job";
-
-                if (!pdfFiles.isEmpty()) {
-                    Map<String, String> extractedInfo = extractPersonaAndGoal(pdfFiles.get(0));
-                    persona = extractedInfo.get("persona");
-                    jobToBeDone = extractedInfo.get("jobToBeDone");
-                }
+        if (ExtractionServer.isEnabled()) {
+            runServer(inputPath, mapper, cache, metrics);
+            return;
+        }
 
-                PersonaExtractor extractor = new PersonaExtractor(jobToBeDone);
-
-                for (Path pdfFile : pdfFiles) {
-                    System.out.println("Processing: " + pdfFile.getFileName());
-                    processedDocuments.add(pdfFile.getFileName().toString());
-
-                    PDDocument document = null;
-                    try {
-                        document = PDDocument.load(pdfFile.toFile());
-                        List<OutlineData> headings = extractHeadings(document);
-                        List<RankedSection> rankedSections = extractor.rankSections(headings, pdfFile.getFileName().toString());
-                        allRankedSections.addAll(rankedSections);
-                    } finally {
-                        if (document != null) {
-                            document.close();
-                        }
+        // The watcher is registered before the initial scan, so a file that arrives while the first pass
+        // runs is not missed. A collection seen by both is ranked twice, which rewrites the same output.
+        ForkJoinPool pool = new ForkJoinPool(WORKER_THREADS);
+        try (DirectoryWatcher watcher = DirectoryWatcher.isEnabled()
+                ? DirectoryWatcher.fromEnvironment(inputPath, PersonaExtractor::isCollectionInput) : null) {
+            List<Path> languageDirs;
+            try (Stream<Path> entries = Files.list(inputPath)) {
+                languageDirs = entries.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+            }
+            processCollections(pool, languageDirs, outputPath, mapper, cache, metrics);
+            writeRunReport(metrics, mapper);
+
+            if (watcher != null) {
+                watcher.run(changedFiles -> {
+                    Set<Path> affected = affectedLanguageDirs(inputPath, changedFiles);
+                    for (Path languageDir : affected) {
+                        System.out.println("Detected changes in " + languageDir.getFileName());
                     }
-                }
+                    processCollections(pool, new ArrayList<>(affected), outputPath, mapper, cache, metrics);
+                    writeRunReport(metrics, mapper);
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while watching " + inputPath);
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-                Metadata metadata = new Metadata(processedDocuments, persona, jobToBeDone);
-                Map<String, Object> outputJson = new HashMap<>();
-                outputJson.put("metadata", metadata);
-                outputJson.put("extracted_sections", allRankedSections);
+    /**
+     * Processes independent collections concurrently on {@code pool}; their documents are forked onto
+     * the same pool, so idle workers steal from whichever collection still has work. A failing
+     * collection is logged without affecting the others.
+     */
+    private static void processCollections(ForkJoinPool pool, List<Path> languageDirs, Path outputPath,
+                                           ObjectMapper mapper, OutlineCache cache, RunMetrics metrics) {
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(languageDirs.size());
+        for (Path languageDir : languageDirs) {
+            tasks.add(pool.submit(() -> {
+                processLanguage(languageDir, outputPath, mapper, cache, metrics);
+                return null;
+            }));
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).join();
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.err.println("Error processing " + languageDirs.get(i).getFileName() + ": " + cause.getMessage());
+                cause.printStackTrace();
+            }
+        }
+    }
 
-                Path langOutputDir = outputPath.resolve(language);
-                Files.createDirectories(langOutputDir);
-                Path outputFile = langOutputDir.resolve("round1b_output.json");
-                mapper.writeValue(outputFile.toFile(), outputJson);
+    private static void writeRunReport(RunMetrics metrics, ObjectMapper mapper) {
+        try {
+            metrics.writeReport(mapper);
+        } catch (IOException e) {
+            System.err.println("Error writing run report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Files whose changes alter a collection's output: its PDFs, its {@code query.json} and its
+     * {@code stopwords.txt}.
+     */
+    private static boolean isCollectionInput(Path file) {
+        String name = file.getFileName().toString();
+        return DirectoryWatcher.isPdf(file) || name.equals(QUERY_FILE) || name.equals(UnicodeTokenizer.STOPWORDS_FILE);
+    }
 
-                System.out.println("Written output to: " + outputFile);
+    /**
+     * Maps changed collection inputs to the language folders that contain them; files directly under
+     * the input directory and folders that no longer exist are ignored.
+     */
+    private static Set<Path> affectedLanguageDirs(Path inputPath, List<Path> changedFiles) {
+        Set<Path> languageDirs = new TreeSet<>();
+        for (Path changedFile : changedFiles) {
+            Path relative = inputPath.relativize(changedFile);
+            if (relative.getNameCount() < 2) continue;
+
+            Path languageDir = inputPath.resolve(relative.getName(0));
+            if (Files.isDirectory(languageDir)) {
+                languageDirs.add(languageDir);
             }
         }
+        return languageDirs;
     }
 
-    private final List<String> taskKeywords;
+    static void processLanguage(Path languageDir, Path outputPath, ObjectMapper mapper, OutlineCache cache,
+                                RunMetrics metrics) throws IOException {
+        String language = languageDir.getFileName().toString();
+        List<Path> pdfFiles = listPdfFiles(languageDir);
+        List<ExtractedDocument> documents = extractDocuments(pdfFiles, cache, metrics);
+        RunMetrics.Timer collectionTimer = metrics.startCollection(language);
+
+        List<String> firstPageLines = documents.isEmpty() ? new ArrayList<>() : documents.get(0).firstPageLines;
+        Map<String, String> extractedInfo = readQuery(languageDir, mapper, firstPageLines);
+        RankedCollection ranked = rank(documentNames(pdfFiles), documents, extractedInfo.get("persona"),
+                extractedInfo.get("jobToBeDone"), UnicodeTokenizer.forCollection(languageDir));
+        collectionTimer.lap(RunMetrics.Stage.RANK);
+
+        Path langOutputDir = outputPath.resolve(language);
+        Files.createDirectories(langOutputDir);
+        Path outputFile = langOutputDir.resolve("round1b_output.json");
+        mapper.writeValue(outputFile.toFile(), ranked);
+        collectionTimer.lap(RunMetrics.Stage.SERIALIZE);
+        collectionTimer.finish("processed");
+
+        System.out.println("Written output to: " + outputFile);
+    }
 
-    public PersonaExtractor(String jobToBeDone) {
-        this.taskKeywords = extractKeywords(jobToBeDone);
+    private static List<Path> listPdfFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> documentNames(List<Path> pdfFiles) {
+        List<String> names = new ArrayList<>(pdfFiles.size());
+        for (Path pdfFile : pdfFiles) {
+            names.add(pdfFile.getFileName().toString());
+        }
+        return names;
     }
 
-    private List<String> extractKeywords(String text) {
-        return Arrays.asList(text.toLowerCase().replaceAll("[^a-zA-Z0-9 ]", "").split("\\s+"));
+    /**
+     * Extracts the documents as forked tasks of the current pool. Each task fills its own result and
+     * they are returned in document order, so ranking does not depend on scheduling. A PDF that cannot
+     * be extracted is logged, counted as failed and removed from {@code pdfFiles}, so the rest of the
+     * collection is still ranked and {@code pdfFiles} stays aligned with the returned documents. A task
+     * waiting for the memory budget blocks through {@link ForkJoinPool#managedBlock} inside
+     * {@link DocumentLoader}, so the pool compensates rather than losing the worker.
+     */
+    private static List<ExtractedDocument> extractDocuments(List<Path> pdfFiles, OutlineCache cache, RunMetrics metrics) {
+        List<ForkJoinTask<ExtractedDocument>> documentTasks = new ArrayList<>(pdfFiles.size());
+        for (Path pdfFile : pdfFiles) {
+            documentTasks.add(ForkJoinTask.adapt(() -> {
+                System.out.println("Processing: " + pdfFile.getFileName());
+                RunMetrics.Timer timer = metrics.startDocument(pdfFile.getFileName().toString());
+                String outcome = "failed";
+                try {
+                    ExtractedDocument extracted = extractDocument(pdfFile, cache, metrics, timer);
+                    outcome = "processed";
+                    return extracted;
+                } catch (Exception e) {
+                    System.err.println("Error processing " + pdfFile.getFileName() + ": " + e.getMessage());
+                    e.printStackTrace();
+                    return null;
+                } finally {
+                    timer.finish(outcome);
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(documentTasks);
+
+        List<ExtractedDocument> documents = new ArrayList<>(documentTasks.size());
+        Iterator<Path> files = pdfFiles.iterator();
+        for (ForkJoinTask<ExtractedDocument> task : documentTasks) {
+            files.next();
+            ExtractedDocument extracted = task.join();
+            if (extracted != null) {
+                documents.add(extracted);
+            } else {
+                files.remove();
+            }
+        }
+        return documents;
     }
 
-    private int scoreSection(String sectionText) {
-        String lowerText = sectionText.toLowerCase();
-        int score = 0;
-        for (String keyword : taskKeywords) {
-            if (lowerText.contains(keyword)) {
-                score++;
+    /**
+     * Indexes the sections of {@code documents}, in order, and ranks them against {@code jobToBeDone},
+     * or against persona and job by embedding similarity when a model is configured.
+     */
+    private static RankedCollection rank(List<String> documentNames, List<ExtractedDocument> documents, String persona,
+                                         String jobToBeDone, Tokenizer tokenizer) {
+        SectionIndex index = new SectionIndex(tokenizer);
+        for (int i = 0; i < documents.size(); i++) {
+            for (SectionTextExtractor.Section section : documents.get(i).sections) {
+                index.add(documentNames.get(i), section.heading, section.text);
             }
         }
-        return score;
+        List<SectionIndex.Hit> hits = null;
+        if (EMBEDDER != null) {
+            try {
+                hits = semanticSearch(index, persona + ". " + jobToBeDone);
+            } catch (IOException e) {
+                System.err.println("Semantic ranking failed, falling back to keyword ranking: " + e.getMessage());
+            }
+        }
+        if (hits == null) {
+            hits = index.search(jobToBeDone, TOP_K);
+        }
+        return new RankedCollection(new Metadata(documentNames, persona, jobToBeDone), index, hits);
+    }
+
+    /** Embeds every section, heading and body text, and ranks them by cosine similarity to {@code query}. */
+    private static List<SectionIndex.Hit> semanticSearch(SectionIndex index, String query) throws IOException {
+        List<String> texts = new ArrayList<>(index.size());
+        for (int section = 0; section < index.size(); section++) {
+            String text = index.text(section);
+            texts.add(text.isEmpty() ? index.section(section).text : index.section(section).text + "\n" + text);
+        }
+        float[] queryVector = EMBEDDER.embed(query);
+        VectorIndex vectors = new VectorIndex(queryVector.length, texts.size());
+        for (float[] vector : EMBEDDER.embed(texts)) {
+            vectors.add(vector);
+        }
+        return vectors.search(queryVector, TOP_K);
+    }
+
+    /**
+     * The embedding model named by {@code PDF_EMBEDDING_MODEL}, or {@code null} for keyword ranking.
+     * ONNX Runtime is only on the classpath in builds made with {@code -Ponnx}.
+     */
+    private static SentenceEmbedder loadEmbedder() {
+        if (Settings.stringFromEnv("PDF_EMBEDDING_MODEL", null) == null) {
+            return null;
+        }
+        try {
+            SentenceEmbedder embedder = SentenceEmbedder.fromEnvironment();
+            System.out.println("Ranking sections by embedding similarity.");
+            return embedder;
+        } catch (IOException e) {
+            System.err.println("Semantic ranking disabled: " + e.getMessage());
+        } catch (LinkageError e) {
+            System.err.println("Semantic ranking disabled: ONNX Runtime is not on the classpath; build with mvn -Ponnx package.");
+        }
+        return null;
     }
 
-    private List<RankedSection> rankSections(List<OutlineData> sections, String documentName) {
-        List<RankedSection> rankedSections = new ArrayList<>();
-        for (OutlineData section : sections) {
-            int relevanceScore = scoreSection(section.text);
-            if (relevanceScore > 0) {
-                rankedSections.add(new RankedSection(
-                        documentName,
-                        section.page,
-                        section.text,
-                        relevanceScore
-                ));
+    /**
+     * A collection's result, streamed one entry at a time when serialized. Sections are ranked across
+     * the whole collection, headings and body text, against the job description;
+     * {@code importance_rank} is the 1-based position in that ranking, and {@code subsection_analysis}
+     * holds the body text of each ranked section that has any.
+     */
+    private static class RankedCollection extends JsonSerializable.Base {
+        final Metadata metadata;
+        final SectionIndex index;
+        final List<SectionIndex.Hit> hits;
+
+        RankedCollection(Metadata metadata, SectionIndex index, List<SectionIndex.Hit> hits) {
+            this.metadata = metadata;
+            this.index = index;
+            this.hits = hits;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName("metadata");
+            provider.defaultSerializeValue(metadata, generator);
+
+            generator.writeArrayFieldStart("extracted_sections");
+            int rank = 0;
+            for (SectionIndex.Hit hit : hits) {
+                OutlineData section = index.section(hit.section);
+                provider.defaultSerializeValue(new RankedSection(index.document(hit.section), section.page, section.text, ++rank), generator);
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("subsection_analysis");
+            for (SectionIndex.Hit hit : hits) {
+                String text = index.text(hit.section);
+                if (!text.isEmpty()) {
+                    provider.defaultSerializeValue(new SubsectionAnalysis(index.document(hit.section), text, index.section(hit.section).page), generator);
+                }
             }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+            serialize(generator, provider);
         }
-        rankedSections.sort(Comparator.comparingInt(s -> -s.importance_rank));
-        return rankedSections;
     }
 
     public static class Metadata {
@@ -159,121 +378,180 @@ public class PersonaExtractor {
         }
     }
 
-    public static class OutlineData {
-        public String level;
-        public String text;
-        public int page;
+    public static class SubsectionAnalysis {
+        public String document;
+        public String refined_text;
+        public int page_number;
 
-        public OutlineData(String level, String text, int page) {
-            this.level = level;
-            this.text = text;
-            this.page = page;
+        public SubsectionAnalysis(String document, String refinedText, int pageNumber) {
+            this.document = document;
+            this.refined_text = refinedText;
+            this.page_number = pageNumber;
         }
     }
 
-    private static List<OutlineData> extractHeadings(PDDocument document) throws IOException {
-        List<TextLine> textLines = new ArrayList<>();
+    private static class ExtractedDocument {
+        final String title;
+        final List<SectionTextExtractor.Section> sections;
+        final List<String> firstPageLines;
 
-        PDFTextStripper stripper = new PDFTextStripper() {
-            int currentPageNum;
+        ExtractedDocument(String title, List<SectionTextExtractor.Section> sections, List<String> firstPageLines) {
+            this.title = title;
+            this.sections = sections;
+            this.firstPageLines = firstPageLines;
+        }
+    }
 
-            @Override
-            protected void startPage(PDPage page) throws IOException {
-                currentPageNum = getCurrentPageNo();
-                super.startPage(page);
+    /**
+     * Returns the document's sections and the leading lines of its first page, from the shared outline
+     * cache when possible. Each PDF is opened and parsed at most once. On a miss the full outline, title,
+     * section texts and first-page lines included, is cached; Adobe_1A can reuse the entry as well.
+     */
+    private static ExtractedDocument extractDocument(Path pdfFile, OutlineCache cache, RunMetrics metrics,
+                                                     RunMetrics.Timer timer) throws IOException {
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = cache.key(pdfFile);
+            OutlineCache.Entry cached = cache.get(cacheKey);
+            if (cached != null && cached.hasSectionTexts(SECTION_TEXT_CHARS)) {
+                metrics.increment(RunMetrics.Counter.CACHE_HITS);
+                List<SectionTextExtractor.Section> sections = new ArrayList<>(cached.sectionTexts.size());
+                for (int i = 0; i < cached.sectionTexts.size(); i++) {
+                    sections.add(new SectionTextExtractor.Section(cached.outline.outline.get(i), cached.sectionTexts.get(i)));
+                }
+                timer.lap(RunMetrics.Stage.LOAD);
+                return new ExtractedDocument(cached.outline.title, sections, cached.firstPageLines);
             }
+        }
 
-            @Override
-            protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
-                if (text.trim().isEmpty()) return;
-                TextPosition firstChar = textPositions.get(0);
-                float y = firstChar.getYDirAdj();
-                float x = firstChar.getXDirAdj();
-                float fontSize = firstChar.getFontSizeInPt();
-                boolean isBold = firstChar.getFont().getName().toLowerCase().contains("bold");
-
-                textLines.add(new TextLine(text.trim(), y, x, fontSize, isBold, currentPageNum));
-            }
-        };
-
-        stripper.setSortByPosition(true);
-        stripper.getText(document);
-
-        textLines.sort(Comparator
-                .comparingInt((TextLine line) -> line.page)
-                .thenComparingDouble(line -> line.y));
-
-        float avgFontSize = calculateAverageFontSize(textLines);
-        float h1Min = avgFontSize * 1.6f;
-        float h2Min = avgFontSize * 1.3f;
-        float h3Min = avgFontSize * 1.1f;
-
-        List<OutlineData> result = new ArrayList<>();
-        for (TextLine line : textLines) {
-            if (line.fontSize >= h1Min) {
-                result.add(new OutlineData("H1", line.text, line.page));
-            } else if (line.fontSize >= h2Min) {
-                result.add(new OutlineData("H2", line.text, line.page));
-            } else if (line.fontSize >= h3Min) {
-                result.add(new OutlineData("H3", line.text, line.page));
+        try (DocumentLoader.OpenDocument opened = LOADER.open(pdfFile)) {
+            PDDocument document = opened.document;
+            timer.lap(RunMetrics.Stage.LOAD);
+            ExtractedDocument extracted = extractLoaded(document, metrics, timer);
+            if (cache != null) {
+                List<OutlineData> headings = new ArrayList<>(extracted.sections.size());
+                List<String> texts = new ArrayList<>(extracted.sections.size());
+                for (SectionTextExtractor.Section section : extracted.sections) {
+                    headings.add(section.heading);
+                    texts.add(section.text);
+                }
+                DocumentOutline outline = new DocumentOutline(extracted.title, headings);
+                cache.put(cacheKey, new OutlineCache.Entry(document.getNumberOfPages(), outline, SECTION_TEXT_CHARS, texts, extracted.firstPageLines));
             }
+            timer.lap(RunMetrics.Stage.SERIALIZE);
+            return extracted;
         }
-        return result;
     }
 
-    private static float calculateAverageFontSize(List<TextLine> textLines) {
-        List<Float> fontSizes = textLines.stream()
-                                         .map(line -> line.fontSize)
-                                         .filter(size -> size >= 8.0f && size <= 14.0f)
-                                         .collect(Collectors.toList());
-
-        if (fontSizes.isEmpty()) return 10.0f;
-
-        float sum = 0;
-        for (float size : fontSizes) sum += size;
-        return sum / fontSizes.size();
+    private static ExtractedDocument extractLoaded(PDDocument document, RunMetrics metrics, RunMetrics.Timer timer) throws IOException {
+        SectionTextExtractor extractor = new SectionTextExtractor(SECTION_TEXT_CHARS);
+        DocumentLayout layout = extractor.extractLayout(document);
+        timer.lapLayout(layout);
+        List<SectionTextExtractor.Section> sections = extractor.extractSections(layout);
+        List<String> firstPageLines = extractor.getFirstPageLines(2);
+        metrics.add(RunMetrics.Counter.HEADINGS, sections.size());
+        timer.lap(RunMetrics.Stage.CLASSIFY);
+        return new ExtractedDocument(extractor.extractTitle(document, layout), sections, firstPageLines);
     }
 
-    public static class TextLine {
-        public String text;
-        public float y;
-        public float x;
-        public float fontSize;
-        public boolean isBold;
-        public int page;
-
-        public TextLine(String text, float y, float x, float fontSize, boolean isBold, int page) {
-            this.text = text;
-            this.y = y;
-            this.x = x;
-            this.fontSize = fontSize;
-            this.isBold = isBold;
-            this.page = page;
-        }
+    /**
+     * Serves {@code POST /rank} until the process is stopped. Documents are given as one or more
+     * {@code path} query parameters relative to {@code PDF_INPUT_DIR}, each a PDF or a language folder,
+     * or as a single PDF in the request body. {@code persona} and {@code job} parameters override the
+     * folder's {@code query.json} and the first-page detection. The response has the same shape as
+     * {@code round1b_output.json}.
+     */
+    private static void runServer(Path inputPath, ObjectMapper mapper, OutlineCache cache, RunMetrics metrics) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(WORKER_THREADS);
+        ExtractionServer server = ExtractionServer.fromEnvironment(mapper, metrics);
+        server.route("/rank", request -> serveRanking(request, inputPath, pool, mapper, cache, metrics));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            pool.shutdownNow();
+        }));
+
+        RunMetrics warmUpMetrics = new RunMetrics("1B", null);
+        server.start(request -> serveRanking(request, inputPath, pool, mapper, null, warmUpMetrics));
     }
 
-    private static Map<String, String> extractPersonaAndGoal(Path pdfPath) throws IOException {
-        PDDocument document = PDDocument.load(pdfPath.toFile());
-        PDFTextStripper stripper = new PDFTextStripper();
-        stripper.setEndPage(1);
-        String text = stripper.getText(document);
-        document.close();
-
-        String persona = "Unknown Persona";
-        String goal = "Unknown Job";
+    private static RankedCollection serveRanking(ExtractionServer.Request request, Path inputPath, ForkJoinPool pool,
+                                                 ObjectMapper mapper, OutlineCache cache, RunMetrics metrics) throws IOException {
+        List<Path> pdfFiles = new ArrayList<>();
+        Path queryDir = null;
+        for (String path : request.parameters("path")) {
+            Path resolved = ExtractionServer.resolveWithin(inputPath, path);
+            if (Files.isDirectory(resolved)) {
+                pdfFiles.addAll(listPdfFiles(resolved));
+                queryDir = queryDir != null ? queryDir : resolved;
+            } else if (Files.isRegularFile(resolved)) {
+                pdfFiles.add(resolved);
+            } else {
+                throw new ExtractionServer.RequestException(404, "No such file or folder: " + path);
+            }
+        }
+        if (pdfFiles.isEmpty() && request.body.length == 0) {
+            throw new ExtractionServer.RequestException(400, "Send a PDF as the request body or one or more path parameters");
+        }
 
-        // Split into sentences or lines
-        String[] lines = text.split("\\r?\\n");
-        List<String> validLines = Arrays.stream(lines)
-                                        .map(String::trim)
-                                        .filter(line -> !line.isEmpty())
-                                        .collect(Collectors.toList());
+        Path languageDir = queryDir;
+        ForkJoinTask<RankedCollection> task = ForkJoinTask.adapt(() -> {
+            List<String> documentNames;
+            List<ExtractedDocument> documents;
+            if (pdfFiles.isEmpty()) {
+                String name = request.parameter("name") != null ? request.parameter("name") : "upload.pdf";
+                RunMetrics.Timer timer = metrics.startDocument(name);
+                String outcome = "failed";
+                try (DocumentLoader.OpenDocument opened = LOADER.open(request.body, name)) {
+                    timer.lap(RunMetrics.Stage.LOAD);
+                    documents = Collections.singletonList(extractLoaded(opened.document, metrics, timer));
+                    outcome = "processed";
+                } finally {
+                    timer.finish(outcome);
+                }
+                documentNames = Collections.singletonList(name);
+            } else {
+                documents = extractDocuments(pdfFiles, cache, metrics);
+                documentNames = documentNames(pdfFiles);
+                if (documents.isEmpty()) {
+                    throw new ExtractionServer.RequestException(422, "None of the requested PDFs could be extracted");
+                }
+            }
 
-        if (validLines.size() >= 1) {
-            persona = validLines.get(0);
+            RunMetrics.Timer collectionTimer = metrics.startCollection(languageDir != null ? languageDir.getFileName().toString() : "request");
+            Map<String, String> extractedInfo = readQuery(languageDir, mapper, documents.get(0).firstPageLines);
+            String persona = request.parameter("persona") != null ? request.parameter("persona") : extractedInfo.get("persona");
+            String jobToBeDone = request.parameter("job") != null ? request.parameter("job") : extractedInfo.get("jobToBeDone");
+            Tokenizer tokenizer = languageDir != null ? UnicodeTokenizer.forCollection(languageDir) : new UnicodeTokenizer();
+            RankedCollection ranked = rank(documentNames, documents, persona, jobToBeDone, tokenizer);
+            collectionTimer.lap(RunMetrics.Stage.RANK);
+            collectionTimer.finish("processed");
+            return ranked;
+        });
+        try {
+            return pool.invoke(task);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
         }
-        if (validLines.size() >= 2) {
-            goal = validLines.get(1);
+    }
+
+    /**
+     * Persona and job to be done for a collection. A {@code query.json} in the language folder, e.g.
+     * {@code {"persona": {"role": "..."}, "job_to_be_done": {"task": "..."}}} or with plain strings,
+     * takes precedence. Otherwise they are the first two non-empty lines of the first document's
+     * first page.
+     */
+    private static Map<String, String> readQuery(Path languageDir, ObjectMapper mapper, List<String> firstPageLines) throws IOException {
+        String persona = firstPageLines.size() >= 1 ? firstPageLines.get(0) : "Unknown Persona";
+        String goal = firstPageLines.size() >= 2 ? firstPageLines.get(1) : "Unknown Job";
+
+        Path queryFile = languageDir != null ? languageDir.resolve(QUERY_FILE) : null;
+        if (queryFile != null && Files.isRegularFile(queryFile)) {
+            JsonNode query = mapper.readTree(queryFile.toFile());
+            persona = queryText(query.path("persona"), "role", persona);
+            goal = queryText(query.path("job_to_be_done"), "task", goal);
         }
 
         Map<String, String> result = new HashMap<>();
@@ -281,4 +559,11 @@ public class PersonaExtractor {
         result.put("jobToBeDone", goal);
         return result;
     }
+
+    private static String queryText(JsonNode node, String field, String defaultValue) {
+        if (node.isObject()) {
+            node = node.path(field);
+        }
+        return node.isTextual() && !node.asText().trim().isEmpty() ? node.asText().trim() : defaultValue;
+    }
 }
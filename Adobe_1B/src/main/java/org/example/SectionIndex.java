@@ -0,0 +1,185 @@
+package org.example;
+
+import org.example.core.OutlineData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over the sections of a document collection, ranked with Okapi BM25.
+ *
+ * <p>A section's heading and body text are tokenized once when it is added and indexed as one field.
+ * A query only walks the postings of its own terms, so one index can answer any number of persona/job
+ * queries without rescanning the text, and rare domain terms outweigh words that appear in most sections.
+ */
+public class SectionIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    public static class Hit {
+        public final int section;
+        public final float score;
+
+        Hit(int section, float score) {
+            this.section = section;
+            this.score = score;
+        }
+    }
+
+    /** Section ids in ascending order, each with the number of times the term occurs in that section. */
+    private static class Postings {
+        int[] sections = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int section) {
+            if (size > 0 && sections[size - 1] == section) {
+                frequencies[size - 1]++;
+                return;
+            }
+            if (size == sections.length) {
+                sections = Arrays.copyOf(sections, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            sections[size] = section;
+            frequencies[size] = 1;
+            size++;
+        }
+    }
+
+    private final Tokenizer tokenizer;
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<String> documents = new ArrayList<>();
+    private final List<OutlineData> sections = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private int[] lengths = new int[16];
+    private long totalLength;
+
+    public SectionIndex() {
+        this(new UnicodeTokenizer());
+    }
+
+    public SectionIndex(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    /** Adds a section heading of {@code document} and returns its section id. */
+    public int add(String document, OutlineData section) {
+        return add(document, section, "");
+    }
+
+    /** Adds a section of {@code document}; both the heading and the body {@code text} are searchable. */
+    public int add(String document, OutlineData section, String text) {
+        int id = sections.size();
+        documents.add(document);
+        sections.add(section);
+        texts.add(text);
+
+        if (id == lengths.length) {
+            lengths = Arrays.copyOf(lengths, id * 2);
+        }
+        Consumer<String> indexToken = token -> {
+            postings.computeIfAbsent(token, t -> new Postings()).add(id);
+            lengths[id]++;
+        };
+        tokenizer.tokenize(section.text, indexToken);
+        tokenizer.tokenize(text, indexToken);
+        totalLength += lengths[id];
+        return id;
+    }
+
+    public int size() {
+        return sections.size();
+    }
+
+    public String document(int section) {
+        return documents.get(section);
+    }
+
+    public OutlineData section(int section) {
+        return sections.get(section);
+    }
+
+    public String text(int section) {
+        return texts.get(section);
+    }
+
+    public List<Hit> search(String query) {
+        return search(tokenizer.tokenize(query), Integer.MAX_VALUE);
+    }
+
+    public List<Hit> search(String query, int limit) {
+        return search(tokenizer.tokenize(query), limit);
+    }
+
+    /**
+     * Returns the {@code limit} best sections matching at least one of {@code terms}, best first.
+     * Repeated terms count once, and sections with equal scores keep the order in which they were
+     * added, so the result is deterministic. Only the best {@code limit} hits are kept, in a bounded
+     * min-heap, however many sections match.
+     */
+    public List<Hit> search(Collection<String> terms, int limit) {
+        int count = sections.size();
+        if (count == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        float averageLength = Math.max(1f, totalLength / (float) count);
+        float[] scores = new float[count];
+        int[] matched = new int[count];
+        int matchedCount = 0;
+
+        for (String term : new LinkedHashSet<>(terms)) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            float idf = (float) Math.log(1 + (count - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int section = list.sections[i];
+                int frequency = list.frequencies[i];
+                float norm = K1 * (1 - B + B * lengths[section] / averageLength);
+                if (scores[section] == 0f) {
+                    matched[matchedCount++] = section;
+                }
+                scores[section] += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+
+        return best(matched, matchedCount, scores, limit);
+    }
+
+    /**
+     * The {@code limit} best of the first {@code count} {@code candidates}, by their entry in
+     * {@code scores}, best first.
+     */
+    static List<Hit> best(int[] candidates, int count, float[] scores, int limit) {
+        // The heap's head is the worst hit kept so far: lowest score, then latest section.
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, count) + 1, (a, b) -> -compare(a.section, a.score, b.section, b.score));
+        for (int i = 0; i < count; i++) {
+            int section = candidates[i];
+            if (best.size() < limit) {
+                best.add(new Hit(section, scores[section]));
+            } else if (compare(section, scores[section], best.peek().section, best.peek().score) < 0) {
+                best.poll();
+                best.add(new Hit(section, scores[section]));
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort((a, b) -> compare(a.section, a.score, b.section, b.score));
+        return hits;
+    }
+
+    /** Ranking order: higher score first, then earlier section. */
+    private static int compare(int sectionA, float scoreA, int sectionB, float scoreB) {
+        return scoreA != scoreB ? Float.compare(scoreB, scoreA) : Integer.compare(sectionA, sectionB);
+    }
+}
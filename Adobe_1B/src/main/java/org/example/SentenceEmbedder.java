@@ -0,0 +1,255 @@
+package org.example;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import org.example.core.Settings;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sentence embeddings from a local, CPU-only ONNX model such as all-MiniLM-L6-v2.
+ *
+ * <p>The model directory holds {@code model.onnx} and its WordPiece {@code vocab.txt}; nothing is
+ * downloaded. Texts are embedded in batches, sorted by token count first so each batch pads to a
+ * similar length. Token vectors are mean-pooled over the attention mask (models that already output a
+ * sentence vector are used as is), and every vector is L2-normalized, so a dot product is the cosine
+ * similarity. Vectors are cached by the SHA-256 of their text, so repeated headings and reruns in
+ * watch or server mode skip inference.
+ *
+ * <p>An instance can be shared between threads.
+ */
+public class SentenceEmbedder implements AutoCloseable {
+
+    public static final String MODEL_FILE = "model.onnx";
+    public static final String VOCABULARY_FILE = "vocab.txt";
+
+    private final OrtEnvironment environment = OrtEnvironment.getEnvironment();
+    private final OrtSession session;
+    private final Set<String> inputNames;
+    private final WordPieceEncoder encoder;
+    private final int batchSize;
+    private final Map<String, float[]> cache;
+
+    public SentenceEmbedder(Path modelDir, int maxTokens, int batchSize, int threads, int cacheEntries)
+            throws IOException {
+        this.encoder = WordPieceEncoder.load(modelDir.resolve(VOCABULARY_FILE), maxTokens);
+        this.batchSize = Math.max(1, batchSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setIntraOpNumThreads(Math.max(1, threads));
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            this.session = environment.createSession(modelDir.resolve(MODEL_FILE).toString(), options);
+            this.inputNames = session.getInputNames();
+        } catch (OrtException e) {
+            throw new IOException("Cannot load " + modelDir.resolve(MODEL_FILE) + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads {@code PDF_EMBEDDING_MODEL}, the model directory; without it semantic ranking is off and
+     * {@code null} is returned. {@code PDF_EMBEDDING_BATCH} (default 32) texts are embedded per call,
+     * each truncated to {@code PDF_EMBEDDING_MAX_TOKENS} (default 128), on
+     * {@code PDF_EMBEDDING_THREADS} intra-op threads (default: number of CPU cores), and up to
+     * {@code PDF_EMBEDDING_CACHE_ENTRIES} (default 20000) vectors are cached.
+     */
+    public static SentenceEmbedder fromEnvironment() throws IOException {
+        String modelDir = Settings.stringFromEnv("PDF_EMBEDDING_MODEL", null);
+        if (modelDir == null) {
+            return null;
+        }
+        Path dir = Paths.get(modelDir);
+        if (!Files.isRegularFile(dir.resolve(MODEL_FILE)) || !Files.isRegularFile(dir.resolve(VOCABULARY_FILE))) {
+            throw new IOException(dir + " must contain " + MODEL_FILE + " and " + VOCABULARY_FILE);
+        }
+        return new SentenceEmbedder(dir,
+                Settings.intFromEnv("PDF_EMBEDDING_MAX_TOKENS", 128),
+                Settings.intFromEnv("PDF_EMBEDDING_BATCH", 32),
+                Settings.intFromEnv("PDF_EMBEDDING_THREADS", Runtime.getRuntime().availableProcessors()),
+                Settings.intFromEnv("PDF_EMBEDDING_CACHE_ENTRIES", 20_000));
+    }
+
+    public float[] embed(String text) throws IOException {
+        return embed(List.of(text)).get(0);
+    }
+
+    /** One normalized vector per text, in order. */
+    public List<float[]> embed(List<String> texts) throws IOException {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        Map<String, List<Integer>> missing = new HashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        synchronized (cache) {
+            for (int i = 0; i < texts.size(); i++) {
+                String key = contentHash(texts.get(i));
+                float[] cached = cache.get(key);
+                vectors.add(cached);
+                if (cached == null) {
+                    missing.computeIfAbsent(key, k -> {
+                        missingKeys.add(k);
+                        return new ArrayList<>();
+                    }).add(i);
+                }
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return vectors;
+        }
+
+        List<long[]> encoded = new ArrayList<>(missingKeys.size());
+        for (String key : missingKeys) {
+            encoded.add(encoder.encode(texts.get(missing.get(key).get(0))));
+        }
+        Integer[] order = new Integer[missingKeys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> encoded.get(i).length));
+
+        for (int from = 0; from < order.length; from += batchSize) {
+            int to = Math.min(order.length, from + batchSize);
+            List<long[]> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                batch.add(encoded.get(order[i]));
+            }
+            float[][] batchVectors = run(batch);
+            synchronized (cache) {
+                for (int i = from; i < to; i++) {
+                    String key = missingKeys.get(order[i]);
+                    float[] vector = batchVectors[i - from];
+                    cache.put(key, vector);
+                    for (int index : missing.get(key)) {
+                        vectors.set(index, vector);
+                    }
+                }
+            }
+        }
+        return vectors;
+    }
+
+    /** Runs one padded batch through the model and pools its output. */
+    private float[][] run(List<long[]> batch) throws IOException {
+        int rows = batch.size();
+        int columns = 0;
+        for (long[] ids : batch) {
+            columns = Math.max(columns, ids.length);
+        }
+        long[] inputIds = new long[rows * columns];
+        long[] attentionMask = new long[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            long[] ids = batch.get(row);
+            System.arraycopy(ids, 0, inputIds, row * columns, ids.length);
+            Arrays.fill(attentionMask, row * columns, row * columns + ids.length, 1L);
+        }
+
+        long[] shape = {rows, columns};
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put("input_ids", OnnxTensor.createTensor(environment, LongBuffer.wrap(inputIds), shape));
+            if (inputNames.contains("attention_mask")) {
+                inputs.put("attention_mask", OnnxTensor.createTensor(environment, LongBuffer.wrap(attentionMask), shape));
+            }
+            if (inputNames.contains("token_type_ids")) {
+                inputs.put("token_type_ids", OnnxTensor.createTensor(environment, LongBuffer.wrap(new long[rows * columns]), shape));
+            }
+            try (OrtSession.Result result = session.run(inputs)) {
+                OnnxTensor output = (OnnxTensor) result.get(0);
+                long[] outputShape = output.getInfo().getShape();
+                return pool(output.getFloatBuffer(), outputShape, attentionMask, columns);
+            }
+        } catch (OrtException e) {
+            throw new IOException("Embedding failed: " + e.getMessage(), e);
+        } finally {
+            for (OnnxTensor tensor : inputs.values()) {
+                tensor.close();
+            }
+        }
+    }
+
+    /** Mean of the unmasked token vectors of a {@code [rows, tokens, dim]} output, or the rows of a {@code [rows, dim]} one. */
+    private static float[][] pool(FloatBuffer output, long[] shape, long[] attentionMask, int columns) {
+        int rows = (int) shape[0];
+        int dimension = (int) shape[shape.length - 1];
+        float[][] vectors = new float[rows][dimension];
+        if (shape.length == 2) {
+            for (int row = 0; row < rows; row++) {
+                output.get(row * dimension, vectors[row]);
+                normalize(vectors[row]);
+            }
+            return vectors;
+        }
+        float[] token = new float[dimension];
+        for (int row = 0; row < rows; row++) {
+            float[] vector = vectors[row];
+            int tokens = 0;
+            for (int column = 0; column < columns; column++) {
+                if (attentionMask[row * columns + column] == 0) {
+                    continue;
+                }
+                output.get((row * columns + column) * dimension, token);
+                for (int d = 0; d < dimension; d++) {
+                    vector[d] += token[d];
+                }
+                tokens++;
+            }
+            for (int d = 0; d < dimension; d++) {
+                vector[d] /= Math.max(1, tokens);
+            }
+            normalize(vector);
+        }
+        return vectors;
+    }
+
+    private static void normalize(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        if (sum > 0) {
+            float scale = (float) (1 / Math.sqrt(sum));
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] *= scale;
+            }
+        }
+    }
+
+    private static String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            System.err.println("Error closing embedding model: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into the terms used for ranking. Implementations may keep reusable state and are not
+ * required to be thread-safe.
+ */
+public interface Tokenizer {
+
+    /** Passes each term of {@code text} to {@code sink}, in order. */
+    void tokenize(String text, Consumer<String> sink);
+
+    default List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens::add);
+        return tokens;
+    }
+}
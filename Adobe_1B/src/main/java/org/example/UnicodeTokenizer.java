@@ -0,0 +1,141 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Language-neutral tokenizer. Runs of Han, Hiragana, Katakana and Hangul characters, which are not
+ * separated by spaces, become overlapping character bigrams ("区块链" gives "区块" and "块链"); all
+ * other text is segmented with a word {@link BreakIterator} and lower-cased. Terms in the stopword
+ * set are dropped.
+ *
+ * <p>The break iterator is reused across calls, so an instance must not be shared between threads.
+ */
+public class UnicodeTokenizer implements Tokenizer {
+
+    /** Optional stopword file looked up in each language folder. */
+    public static final String STOPWORDS_FILE = "stopwords.txt";
+
+    private final BreakIterator words = BreakIterator.getWordInstance(Locale.ROOT);
+    private final Set<String> stopwords;
+
+    public UnicodeTokenizer() {
+        this(Collections.emptySet());
+    }
+
+    public UnicodeTokenizer(Set<String> stopwords) {
+        this.stopwords = stopwords;
+    }
+
+    /**
+     * Creates a tokenizer for the collection in {@code languageDir}, using its {@code stopwords.txt}
+     * when present: one term per line, blank lines and lines starting with {@code #} are ignored.
+     */
+    public static UnicodeTokenizer forCollection(Path languageDir) throws IOException {
+        Path file = languageDir.resolve(STOPWORDS_FILE);
+        if (!Files.isRegularFile(file)) {
+            return new UnicodeTokenizer();
+        }
+        Set<String> stopwords = new HashSet<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String word = line.trim().toLowerCase(Locale.ROOT);
+            if (!word.isEmpty() && !word.startsWith("#")) {
+                stopwords.add(word);
+            }
+        }
+        return new UnicodeTokenizer(stopwords);
+    }
+
+    @Override
+    public void tokenize(String text, Consumer<String> sink) {
+        int length = text.length();
+        boolean wordsReady = false;
+        int i = 0;
+        while (i < length) {
+            int start = i;
+            if (isCjk(text.codePointAt(i))) {
+                while (i < length && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                emitBigrams(text, start, i, sink);
+            } else {
+                while (i < length && !isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                if (!wordsReady) {
+                    words.setText(text);
+                    wordsReady = true;
+                }
+                emitWords(text, start, i, sink);
+            }
+        }
+    }
+
+    private void emitWords(String text, int start, int end, Consumer<String> sink) {
+        int from = start;
+        while (from < end) {
+            int to = Math.min(words.following(from), end);
+            if (to == BreakIterator.DONE || to <= from) {
+                to = end;
+            }
+            if (containsLetterOrDigit(text, from, to)) {
+                emit(text.substring(from, to).toLowerCase(Locale.ROOT), sink);
+            }
+            from = to;
+        }
+    }
+
+    private void emitBigrams(String text, int start, int end, Consumer<String> sink) {
+        int second = start + Character.charCount(text.codePointAt(start));
+        if (second >= end) {
+            emit(text.substring(start, end), sink);
+            return;
+        }
+        int first = start;
+        while (second < end) {
+            int next = second + Character.charCount(text.codePointAt(second));
+            emit(text.substring(first, next), sink);
+            first = second;
+            second = next;
+        }
+    }
+
+    private void emit(String token, Consumer<String> sink) {
+        if (!stopwords.contains(token)) {
+            sink.accept(token);
+        }
+    }
+
+    private static boolean containsLetterOrDigit(String text, int from, int to) {
+        for (int i = from; i < to; ) {
+            int codePoint = text.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                return true;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return false;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        if (codePoint < 0x2E80) {
+            return false;
+        }
+        if (codePoint == 0x30FC) {
+            return true; // Katakana prolonged sound mark, script COMMON
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Normalized section vectors stored back to back in one flat {@code float[]}, searched by cosine
+ * similarity with a full scan. A scan is a sequential pass over contiguous memory, and the dot product
+ * keeps eight independent sums so its multiply-adds pipeline instead of waiting on one accumulator. A
+ * collection holds a few thousand sections at most, so there is nothing to gain from an approximate
+ * index.
+ *
+ * <p>Vectors must be L2-normalized, as {@link SentenceEmbedder} returns them.
+ */
+public class VectorIndex {
+
+    private final int dimension;
+    private float[] vectors;
+    private int size;
+
+    public VectorIndex(int dimension) {
+        this(dimension, 16);
+    }
+
+    public VectorIndex(int dimension, int capacity) {
+        this.dimension = dimension;
+        this.vectors = new float[dimension * Math.max(1, capacity)];
+    }
+
+    /** Adds the vector of the next section; ids are assigned in order from 0, as in {@link SectionIndex}. */
+    public int add(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a vector of " + dimension + " dimensions, got " + vector.length);
+        }
+        if ((size + 1) * dimension > vectors.length) {
+            vectors = Arrays.copyOf(vectors, vectors.length * 2);
+        }
+        System.arraycopy(vector, 0, vectors, size * dimension, dimension);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The {@code limit} sections most similar to {@code query}, best first; ties keep section order. */
+    public List<SectionIndex.Hit> search(float[] query, int limit) {
+        if (size == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        float[] scores = new float[size];
+        int[] sections = new int[size];
+        for (int section = 0; section < size; section++) {
+            scores[section] = dot(query, vectors, section * dimension, dimension);
+            sections[section] = section;
+        }
+        return SectionIndex.best(sections, size, scores, limit);
+    }
+
+    static float dot(float[] query, float[] vectors, int offset, int dimension) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+        int d = 0;
+        for (; d + 7 < dimension; d += 8) {
+            s0 += query[d] * vectors[offset + d];
+            s1 += query[d + 1] * vectors[offset + d + 1];
+            s2 += query[d + 2] * vectors[offset + d + 2];
+            s3 += query[d + 3] * vectors[offset + d + 3];
+            s4 += query[d + 4] * vectors[offset + d + 4];
+            s5 += query[d + 5] * vectors[offset + d + 5];
+            s6 += query[d + 6] * vectors[offset + d + 6];
+            s7 += query[d + 7] * vectors[offset + d + 7];
+        }
+        for (; d < dimension; d++) {
+            s0 += query[d] * vectors[offset + d];
+        }
+        return ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7));
+    }
+}
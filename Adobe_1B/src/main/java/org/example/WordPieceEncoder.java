@@ -0,0 +1,162 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns text into the token ids of a BERT-style sentence-embedding model, the same way the model's
+ * uncased WordPiece tokenizer does: text is lower-cased and stripped of accents, split on whitespace and
+ * punctuation, CJK ideographs become single-character words, and each word is split into the longest
+ * vocabulary pieces, continuation pieces prefixed with {@code ##}. The result starts with {@code [CLS]},
+ * ends with {@code [SEP]} and is truncated to {@code maxTokens}.
+ *
+ * <p>Instances are immutable and can be shared between threads.
+ */
+public class WordPieceEncoder {
+
+    /** Words longer than this are not split into pieces; they become {@code [UNK]}. */
+    private static final int MAX_WORD_CHARS = 100;
+
+    private final Map<String, Integer> vocabulary;
+    private final int maxTokens;
+    private final int unknownId;
+    private final int clsId;
+    private final int sepId;
+
+    public WordPieceEncoder(Map<String, Integer> vocabulary, int maxTokens) {
+        this.vocabulary = vocabulary;
+        this.maxTokens = Math.max(2, maxTokens);
+        this.unknownId = requireId(vocabulary, "[UNK]");
+        this.clsId = requireId(vocabulary, "[CLS]");
+        this.sepId = requireId(vocabulary, "[SEP]");
+    }
+
+    /** Reads a {@code vocab.txt}: one token per line, the line number being its id. */
+    public static WordPieceEncoder load(Path vocabularyFile, int maxTokens) throws IOException {
+        List<String> lines = Files.readAllLines(vocabularyFile, StandardCharsets.UTF_8);
+        Map<String, Integer> vocabulary = new HashMap<>(lines.size() * 2);
+        for (int i = 0; i < lines.size(); i++) {
+            vocabulary.putIfAbsent(lines.get(i).trim(), i);
+        }
+        return new WordPieceEncoder(vocabulary, maxTokens);
+    }
+
+    private static int requireId(Map<String, Integer> vocabulary, String token) {
+        Integer id = vocabulary.get(token);
+        if (id == null) {
+            throw new IllegalArgumentException("Vocabulary has no " + token + " token");
+        }
+        return id;
+    }
+
+    public int maxTokens() {
+        return maxTokens;
+    }
+
+    public long[] encode(String text) {
+        long[] ids = new long[maxTokens];
+        int count = 0;
+        ids[count++] = clsId;
+
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder word = new StringBuilder();
+        int limit = maxTokens - 1;
+        for (int i = 0; i < normalized.length() && count < limit; ) {
+            int c = normalized.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == 0 || c == 0xFFFD || isControl(c)) {
+                continue;
+            }
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                count = appendPieces(word, ids, count, limit);
+            } else if (isPunctuation(c) || isCjk(c)) {
+                count = appendPieces(word, ids, count, limit);
+                word.appendCodePoint(c);
+                count = appendPieces(word, ids, count, limit);
+            } else {
+                word.appendCodePoint(c);
+            }
+        }
+        count = appendPieces(word, ids, count, limit);
+
+        ids[count++] = sepId;
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /** Appends the pieces of {@code word}, greedy longest match first, and clears it. */
+    private int appendPieces(StringBuilder word, long[] ids, int count, int limit) {
+        if (word.length() == 0) {
+            return count;
+        }
+        String text = word.toString();
+        word.setLength(0);
+        if (count >= limit) {
+            return count;
+        }
+        if (text.length() > MAX_WORD_CHARS) {
+            ids[count++] = unknownId;
+            return count;
+        }
+
+        int pieceCount = 0;
+        int[] pieces = new int[text.length()];
+        for (int start = 0; start < text.length(); ) {
+            int end = text.length();
+            Integer id = null;
+            while (start < end) {
+                String piece = start > 0 ? "##" + text.substring(start, end) : text.substring(start, end);
+                id = vocabulary.get(piece);
+                if (id != null) {
+                    break;
+                }
+                end--;
+            }
+            if (id == null) {
+                ids[count++] = unknownId;
+                return count;
+            }
+            pieces[pieceCount++] = id;
+            start = end;
+        }
+        for (int i = 0; i < pieceCount && count < limit; i++) {
+            ids[count++] = pieces[i];
+        }
+        return count;
+    }
+
+    private static boolean isControl(int c) {
+        return c != '\t' && c != '\n' && c != '\r' && Character.isISOControl(c);
+    }
+
+    /** ASCII symbols count as punctuation too, as in BERT: "$", "+" and "^" are words of their own. */
+    private static boolean isPunctuation(int c) {
+        if ((c >= 33 && c <= 47) || (c >= 58 && c <= 64) || (c >= 91 && c <= 96) || (c >= 123 && c <= 126)) {
+            return true;
+        }
+        switch (Character.getType(c)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isCjk(int c) {
+        return (c >= 0x4E00 && c <= 0x9FFF) || (c >= 0x3400 && c <= 0x4DBF) || (c >= 0x20000 && c <= 0x2A6DF)
+                || (c >= 0x2A700 && c <= 0x2CEAF) || (c >= 0xF900 && c <= 0xFAFF) || (c >= 0x2F800 && c <= 0x2FA1F);
+    }
+}
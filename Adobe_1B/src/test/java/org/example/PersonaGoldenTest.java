@@ -0,0 +1,68 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.core.RunMetrics;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Ranks every collection of {@code PDF_Folder_Round1B} and compares the result with the committed
+ * {@code output/<collection>/round1b_output.json}. Only {@code processing_timestamp} may differ.
+ *
+ * <p>When a change is meant to alter rankings, rerun Adobe_1B over the sample folder with
+ * {@code PDF_OUTPUT_DIR=output}, review the diff and commit it together with the change.
+ */
+class PersonaGoldenTest {
+
+    private static final Path SAMPLES = Paths.get("PDF_Folder_Round1B");
+    private static final Path GOLDEN = Paths.get("output");
+    private static final String OUTPUT_FILE = "round1b_output.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @TempDir
+    Path outputDir;
+
+    @TestFactory
+    Stream<DynamicTest> collections() throws IOException {
+        List<Path> languageDirs;
+        try (Stream<Path> entries = Files.list(SAMPLES)) {
+            languageDirs = entries.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+        assertFalse(languageDirs.isEmpty(), "No sample collections in " + SAMPLES.toAbsolutePath());
+
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Path languageDir : languageDirs) {
+            String language = languageDir.getFileName().toString();
+            Path golden = GOLDEN.resolve(language).resolve(OUTPUT_FILE);
+            tests.add(DynamicTest.dynamicTest(language, () -> {
+                PersonaExtractor.processLanguage(languageDir, outputDir, MAPPER, null, new RunMetrics("1B", null));
+                JsonNode expected = withoutTimestamp(MAPPER.readTree(golden.toFile()));
+                JsonNode actual = withoutTimestamp(MAPPER.readTree(outputDir.resolve(language).resolve(OUTPUT_FILE).toFile()));
+                assertEquals(MAPPER.writeValueAsString(expected), MAPPER.writeValueAsString(actual), golden.toString());
+            }));
+        }
+        return tests.stream();
+    }
+
+    private static JsonNode withoutTimestamp(JsonNode output) {
+        ((ObjectNode) output.get("metadata")).remove("processing_timestamp");
+        return output;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorIndexTest {
+
+    @Test
+    void dotMatchesPlainSumForAnyDimension() {
+        Random random = new Random(42);
+        for (int dimension : new int[] {1, 3, 7, 8, 9, 15, 16, 17, 387}) {
+            float[] query = randomVector(random, dimension);
+            int offset = 5;
+            float[] vectors = new float[offset + dimension];
+            double expected = 0;
+            for (int d = 0; d < dimension; d++) {
+                vectors[offset + d] = random.nextFloat() * 2 - 1;
+                expected += (double) query[d] * vectors[offset + d];
+            }
+            assertEquals(expected, VectorIndex.dot(query, vectors, offset, dimension), 1e-4, "dimension " + dimension);
+        }
+    }
+
+    @Test
+    void searchReturnsBestFirst() {
+        VectorIndex index = new VectorIndex(3);
+        index.add(normalize(0, 1, 0));
+        index.add(normalize(1, 0, 0));
+        index.add(normalize(1, 1, 0));
+        index.add(normalize(-1, 0, 0));
+
+        List<SectionIndex.Hit> hits = index.search(normalize(1, 0.2f, 0), 10);
+
+        assertEquals(4, hits.size());
+        assertEquals(List.of(1, 2, 0, 3), sections(hits));
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score >= hits.get(i).score);
+        }
+        assertEquals(List.of(1, 2), sections(index.search(normalize(1, 0.2f, 0), 2)));
+    }
+
+    @Test
+    void tiesKeepSectionOrder() {
+        VectorIndex index = new VectorIndex(2);
+        index.add(normalize(0, 1));
+        index.add(normalize(1, 0));
+        index.add(normalize(0, 1));
+        index.add(normalize(1, 0));
+
+        assertEquals(List.of(1, 3, 0, 2), sections(index.search(normalize(1, 0), 4)));
+        assertEquals(List.of(0, 1, 2, 3), sections(index.search(new float[2], 4)));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        VectorIndex index = new VectorIndex(2, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, index.add(normalize(1, i)));
+        }
+        assertEquals(5, index.size());
+        assertEquals(List.of(4), sections(index.search(normalize(0, 1), 1)));
+    }
+
+    @Test
+    void rejectsWrongDimensionAndEmptySearches() {
+        VectorIndex index = new VectorIndex(3);
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[2]));
+        assertTrue(index.search(normalize(1, 0, 0), 5).isEmpty());
+        index.add(normalize(1, 0, 0));
+        assertTrue(index.search(normalize(1, 0, 0), 0).isEmpty());
+    }
+
+    private static List<Integer> sections(List<SectionIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.section).toList();
+    }
+
+    private static float[] normalize(float... vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = norm == 0 ? 0 : (float) (vector[i] / Math.sqrt(norm));
+        }
+        return normalized;
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+}
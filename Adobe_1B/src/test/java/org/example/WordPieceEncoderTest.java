@@ -0,0 +1,72 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordPieceEncoderTest {
+
+    private static final String[] VOCABULARY = {
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "un", "##aff", "##able", "hello", ",", "计", "算", "cafe", "a", "##a"
+    };
+    private static final long UNK = 1, CLS = 2, SEP = 3, UN = 4, AFF = 5, ABLE = 6, HELLO = 7, COMMA = 8;
+
+    @Test
+    void splitsWordsIntoLongestPieces() {
+        assertArrayEquals(new long[] {CLS, UN, AFF, ABLE, SEP}, encoder(16).encode("unaffable"));
+    }
+
+    @Test
+    void splitsOnWhitespaceAndPunctuation() {
+        assertArrayEquals(new long[] {CLS, HELLO, COMMA, UN, AFF, ABLE, SEP}, encoder(16).encode("Hello,\tunaffable  "));
+    }
+
+    @Test
+    void lowerCasesAndStripsAccents() {
+        assertArrayEquals(new long[] {CLS, 11, HELLO, SEP}, encoder(16).encode("Café HELLO"));
+    }
+
+    @Test
+    void makesEachIdeographAWord() {
+        assertArrayEquals(new long[] {CLS, 9, 10, SEP}, encoder(16).encode("计算"));
+    }
+
+    @Test
+    void unknownWordsBecomeOneUnknownToken() {
+        // "unknown" starts with the piece "un", but the rest does not split, so the whole word is unknown.
+        assertArrayEquals(new long[] {CLS, HELLO, UNK, UNK, SEP}, encoder(16).encode("hello xyz unknown"));
+        // Longer words than the tokenizer splits are unknown even when their pieces exist.
+        assertArrayEquals(new long[] {CLS, UNK, SEP}, encoder(16).encode("a".repeat(101)));
+        assertArrayEquals(new long[] {CLS, 12, 13, 13, SEP}, encoder(16).encode("aaa"));
+    }
+
+    @Test
+    void truncatesToMaxTokensKeepingSeparator() {
+        assertArrayEquals(new long[] {CLS, HELLO, HELLO, SEP}, encoder(4).encode("hello hello hello"));
+        assertArrayEquals(new long[] {CLS, UN, AFF, SEP}, encoder(4).encode("unaffable"));
+        assertArrayEquals(new long[] {CLS, SEP}, encoder(1).encode("hello"));
+    }
+
+    @Test
+    void requiresSpecialTokens() {
+        Map<String, Integer> vocabulary = vocabulary();
+        vocabulary.remove("[UNK]");
+        assertThrows(IllegalArgumentException.class, () -> new WordPieceEncoder(vocabulary, 16));
+    }
+
+    private static WordPieceEncoder encoder(int maxTokens) {
+        return new WordPieceEncoder(vocabulary(), maxTokens);
+    }
+
+    private static Map<String, Integer> vocabulary() {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        for (int i = 0; i < VOCABULARY.length; i++) {
+            vocabulary.put(VOCABULARY[i], i);
+        }
+        return vocabulary;
+    }
+}
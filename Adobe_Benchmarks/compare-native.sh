@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Compares the JVM and native builds of Adobe_1A and Adobe_1B on their sample folders: wall time from
+# launch to exit and peak resident memory, median of RUNS runs (default 10) after one warm-up run.
+#
+# The native build is experimental and these figures have not been collected yet; see README.md.
+# Run from the repository root after `mvn package` and, with GraalVM as JAVA_HOME, `mvn -Pnative package`.
+# A build that is missing is skipped; the JVM build with a class archive is included after `mvn -Pcds package`.
+# Needs GNU time (/usr/bin/time) for the memory figures.
+set -euo pipefail
+
+RUNS=${RUNS:-10}
+TIME=/usr/bin/time
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+if [[ ! -x $TIME ]]; then
+    echo "GNU time not found at $TIME" >&2
+    exit 1
+fi
+
+# Prints "<wall ms> <max RSS KB>" for one run of the command given as arguments.
+measure() {
+    rm -rf "$work/output"
+    mkdir -p "$work/output"
+    local start end
+    start=$(date +%s%N)
+    PDF_OUTPUT_DIR="$work/output" "$TIME" -f "%M" -o "$work/rss" "$@" > /dev/null 2>&1
+    end=$(date +%s%N)
+    echo "$(( (end - start) / 1000000 )) $(cat "$work/rss")"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# compare <module> <sample folder> <variant> <command...>
+compare() {
+    local module=$1 input=$2 variant=$3
+    shift 3
+    export PDF_INPUT_DIR=$input
+    measure "$@" > /dev/null
+    : > "$work/samples"
+    for ((run = 0; run < RUNS; run++)); do
+        measure "$@" >> "$work/samples"
+    done
+    local wall rss
+    wall=$(cut -d' ' -f1 "$work/samples" | median)
+    rss=$(cut -d' ' -f2 "$work/samples" | median)
+    printf "%-9s %-8s %10s %12s\n" "$module" "$variant" "$wall" "$((rss / 1024))"
+}
+
+printf "%-9s %-8s %10s %12s\n" "module" "build" "wall ms" "max RSS MB"
+for module in Adobe_1A Adobe_1B; do
+    input=$module/PDF_Folder_Round${module#Adobe_}
+    jar=$module/target/$module-1.0-SNAPSHOT.jar
+    binary=$module/target/$module
+
+    if [[ -f $jar ]]; then
+        compare "$module" "$input" jvm java -jar "$jar"
+        if [[ -f $module/target/app.jsa ]]; then
+            compare "$module" "$input" jvm+cds java -XX:SharedArchiveFile="$module/target/app.jsa" \
+                -Dpdfbox.fontcache="$module/target" -jar "$jar"
+        fi
+    fi
+    if [[ -x $binary ]]; then
+        compare "$module" "$input" native "$binary"
+    fi
+done
@@ -0,0 +1,27 @@
+package org.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Same command line as {@link org.openjdk.jmh.Main}, but adds
+ * the GC profiler and {@link PeakHeapProfiler} when no {@code -prof} option is given, so every run
+ * reports allocation per operation and peak heap occupancy.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-prof")) {
+            arguments.add("-prof");
+            arguments.add("gc");
+            arguments.add("-prof");
+            arguments.add(PeakHeapProfiler.class.getName());
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.SentenceEmbedder;
+import org.example.core.OutlineData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sections embedded per second on one core: one benchmark thread, one ONNX Runtime intra-op thread
+ * and the vector cache off, so the score times the number of cores sizes a CPU-only host. Each
+ * operation is one section of about 100 words, embedded in calls of {@value #SECTIONS} sections split
+ * into batches of {@code batch}.
+ *
+ * <p>Needs a model directory ({@code model.onnx} and {@code vocab.txt}) in {@code PDF_EMBEDDING_MODEL}
+ * or {@code -p model=<dir>}, and a jar built with {@code mvn -Ponnx package}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmbeddingBenchmark {
+
+    private static final int SECTIONS = 64;
+
+    @Param({""})
+    public String model;
+
+    @Param({"1", "8", "32"})
+    public int batch;
+
+    private SentenceEmbedder embedder;
+    private List<String> texts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String modelDir = model.isEmpty() ? System.getenv("PDF_EMBEDDING_MODEL") : model;
+        if (modelDir == null) {
+            throw new IllegalStateException("Set PDF_EMBEDDING_MODEL or pass -p model=<dir>");
+        }
+        embedder = new SentenceEmbedder(Paths.get(modelDir), 128, batch, 1, 0);
+
+        List<OutlineData> headings = SectionRankingBenchmark.syntheticHeadings(SECTIONS * 16, new Random(42));
+        texts = new ArrayList<>(SECTIONS);
+        for (int i = 0; i < SECTIONS; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int h = i * 16; h < (i + 1) * 16; h++) {
+                text.append(headings.get(h).text).append(". ");
+            }
+            texts.add(text.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        embedder.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SECTIONS)
+    public List<float[]> embedSections() throws IOException {
+        return embedder.embed(texts);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.example.core.DocumentLayout;
+import org.example.core.FontStatistics;
+import org.example.core.LayoutFeatures;
+import org.example.core.LineStore;
+import org.example.core.OutlineData;
+import org.example.core.OutlineExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages of outline extraction on synthetic documents, each measured on its own: the stripping
+ * pass with line merging in {@code writeString}, body font size estimation over the collected lines,
+ * the per-page layout features, and heading classification of an already extracted layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExtractionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pages;
+
+    private PDDocument document;
+    private DocumentLayout layout;
+    private OutlineExtractor classifier;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        document = SyntheticPdf.create(pages);
+        classifier = new OutlineExtractor();
+        layout = classifier.extractLayout(document);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    public DocumentLayout extractLayout() throws IOException {
+        return new OutlineExtractor().extractLayout(document);
+    }
+
+    /** Rebuilds the body font histogram from the merged lines and takes its mode. */
+    @Benchmark
+    public float bodyFontSize() {
+        LineStore lines = layout.lines;
+        FontStatistics statistics = new FontStatistics();
+        for (int i = 0; i < lines.size(); i++) {
+            float fontSize = lines.fontSize(i);
+            if (OutlineExtractor.isBodyFontSize(fontSize)) {
+                statistics.add(fontSize);
+            }
+        }
+        return statistics.mode();
+    }
+
+    @Benchmark
+    public LayoutFeatures layoutFeatures() {
+        return LayoutFeatures.compute(layout.lines, layout.pageWidths, layout.pageHeights);
+    }
+
+    @Benchmark
+    public List<OutlineData> classifyHeadings() {
+        return classifier.extractHeadings(layout);
+    }
+}
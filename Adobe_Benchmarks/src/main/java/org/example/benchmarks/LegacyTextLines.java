@@ -0,0 +1,76 @@
+package org.example.benchmarks;
+
+import org.example.core.OutlineExtractor;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The line collection of Adobe_1A before {@link org.example.core.LineStore}, kept as the baseline of
+ * {@link LineStoreBenchmark}: one {@link TextLine} object per line, text merged with {@code +=}, the
+ * font name lower-cased for every run, a boxed comparator sort and a boxed stream histogram for the
+ * body font size. Not used by the applications.
+ */
+final class LegacyTextLines {
+
+    static class TextLine {
+        String text;
+        float y;
+        float x;
+        float maxX;
+        float fontSize;
+        boolean isBold;
+        int page;
+
+        TextLine(String text, float y, float x, float maxX, float fontSize, boolean isBold, int page) {
+            this.text = text.trim();
+            this.y = y;
+            this.x = x;
+            this.maxX = maxX;
+            this.fontSize = fontSize;
+            this.isBold = isBold;
+            this.page = page;
+        }
+    }
+
+    private LegacyTextLines() {
+    }
+
+    /** Merges a text run into the last line or starts a new one, as the old {@code writeString} did. */
+    static void addRun(List<TextLine> textLines, String text, float y, float minX, float maxX, float fontSize,
+                       String fontName, int page) {
+        boolean isBold = (fontName != null) && fontName.toLowerCase().contains("bold");
+        if (!textLines.isEmpty()) {
+            TextLine lastLine = textLines.get(textLines.size() - 1);
+            if (lastLine.page == page && Math.abs(lastLine.y - y) < 1.0 && (minX - lastLine.maxX < 5)) {
+                lastLine.text += text;
+                lastLine.maxX = maxX;
+                lastLine.fontSize = Math.max(lastLine.fontSize, fontSize);
+                lastLine.isBold = lastLine.isBold || isBold;
+                return;
+            }
+        }
+        textLines.add(new TextLine(text, y, minX, maxX, fontSize, isBold, page));
+    }
+
+    static void sort(List<TextLine> textLines) {
+        textLines.sort(Comparator
+                .comparingInt((TextLine line) -> line.page)
+                .thenComparingDouble(line -> line.y));
+    }
+
+    static float bodyFontSize(List<TextLine> lines) {
+        List<Float> bodyFontSizes = lines.stream()
+                .filter(line -> OutlineExtractor.isBodyFontSize(line.fontSize))
+                .map(line -> line.fontSize)
+                .collect(Collectors.toList());
+        Map<Float, Long> fontSizeCounts = bodyFontSizes.stream()
+                .collect(Collectors.groupingBy(s -> s, Collectors.counting()));
+        return fontSizeCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(0.0f);
+    }
+}
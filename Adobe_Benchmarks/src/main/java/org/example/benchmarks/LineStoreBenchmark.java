@@ -0,0 +1,218 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.example.core.FontStatistics;
+import org.example.core.LineStore;
+import org.example.core.OutlineExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Line collection with {@link LineStore} against the {@link LegacyTextLines} baseline it replaced.
+ *
+ * <p>The text runs of a document are recorded once and replayed into both: merging runs into lines,
+ * sorting by position and estimating the body font size. That isolates the line bookkeeping from
+ * PDFBox's own per-glyph allocation, which both paths share. {@code source} is a synthetic document
+ * of the given page count or a sample folder, whose PDFs are recorded one after another; run from the
+ * repository root for the latter. With {@code runs=word} every line arrives one word at a time, as
+ * many PDFs emit it, so merging dominates; {@code runs=line} keeps the runs the stripper reports. The
+ * set-up prints how many lines consist of a single run. Run with the GC profiler (the default) for
+ * allocation per operation and GC counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LineStoreBenchmark {
+
+    @Param({"synthetic-100", "synthetic-1000", "Adobe_1A/PDF_Folder_Round1A", "Adobe_1B/PDF_Folder_Round1B"})
+    public String source;
+
+    @Param({"line", "word"})
+    public String runs;
+
+    private final List<String> texts = new ArrayList<>();
+    private float[] y = new float[1024];
+    private float[] x = new float[1024];
+    private float[] maxX = new float[1024];
+    private float[] fontSize = new float[1024];
+    private String[] fontName = new String[1024];
+    private int[] page = new int[1024];
+    private int pageOffset;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        RunRecorder recorder = new RunRecorder();
+        if (source.startsWith("synthetic-")) {
+            try (PDDocument document = SyntheticPdf.create(Integer.parseInt(source.substring("synthetic-".length())))) {
+                recorder.record(document);
+            }
+        } else {
+            List<Path> pdfFiles;
+            try (Stream<Path> files = Files.walk(Paths.get(source))) {
+                pdfFiles = files.filter(Files::isRegularFile)
+                                .filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
+                                .sorted()
+                                .collect(Collectors.toList());
+            }
+            if (pdfFiles.isEmpty()) {
+                throw new IOException("No PDF files found in " + Paths.get(source).toAbsolutePath());
+            }
+            for (Path pdfFile : pdfFiles) {
+                try (PDDocument document = PDDocument.load(pdfFile.toFile())) {
+                    recorder.record(document);
+                }
+            }
+        }
+        printLineStatistics();
+    }
+
+    /** Replays the merge rule of {@link #lineStore()} to count the lines that never receive a second run. */
+    private void printLineStatistics() {
+        int lines = 0;
+        int singleRunLines = 0;
+        int runsInLine = 0;
+        float lineY = 0;
+        float lineMaxX = 0;
+        int linePage = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            if (lines > 0 && linePage == page[i] && Math.abs(lineY - y[i]) < 1.0 && x[i] - lineMaxX < 5) {
+                runsInLine++;
+                lineMaxX = maxX[i];
+                continue;
+            }
+            if (runsInLine == 1) {
+                singleRunLines++;
+            }
+            lines++;
+            runsInLine = 1;
+            lineY = y[i];
+            lineMaxX = maxX[i];
+            linePage = page[i];
+        }
+        if (runsInLine == 1) {
+            singleRunLines++;
+        }
+        System.out.printf("%n%s, runs=%s: %d runs, %d lines, %d of them a single run%n",
+                source, runs, texts.size(), lines, singleRunLines);
+    }
+
+    @Benchmark
+    public float textLines() {
+        List<LegacyTextLines.TextLine> lines = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            LegacyTextLines.addRun(lines, texts.get(i), y[i], x[i], maxX[i], fontSize[i], fontName[i], page[i]);
+        }
+        LegacyTextLines.sort(lines);
+        return LegacyTextLines.bodyFontSize(lines);
+    }
+
+    /** The same steps as {@code OutlineExtractor.writeString}, including its bold check cached per font. */
+    @Benchmark
+    public float lineStore() {
+        LineStore lines = new LineStore();
+        FontStatistics bodyFontStatistics = new FontStatistics();
+        String lastFontName = null;
+        boolean lastFontBold = false;
+        for (int i = 0; i < texts.size(); i++) {
+            if (fontName[i] != lastFontName) {
+                lastFontName = fontName[i];
+                lastFontBold = lastFontName != null && lastFontName.toLowerCase().contains("bold");
+            }
+            if (!lines.isEmpty()) {
+                int last = lines.size() - 1;
+                if (lines.page(last) == page[i] && Math.abs(lines.y(last) - y[i]) < 1.0 && x[i] - lines.maxX(last) < 5) {
+                    float previousFontSize = lines.fontSize(last);
+                    lines.appendToLast(texts.get(i), maxX[i], fontSize[i], lastFontBold);
+                    if (lines.fontSize(last) != previousFontSize) {
+                        if (OutlineExtractor.isBodyFontSize(previousFontSize)) bodyFontStatistics.remove(previousFontSize);
+                        if (OutlineExtractor.isBodyFontSize(lines.fontSize(last))) bodyFontStatistics.add(lines.fontSize(last));
+                    }
+                    continue;
+                }
+            }
+            lines.add(texts.get(i), y[i], x[i], maxX[i], fontSize[i], lastFontBold, page[i]);
+            if (OutlineExtractor.isBodyFontSize(fontSize[i])) bodyFontStatistics.add(fontSize[i]);
+        }
+        lines.sortByPosition();
+        return bodyFontStatistics.mode();
+    }
+
+    /** Records every run the stripper reports, split into words when {@code runs=word}. */
+    private class RunRecorder extends PDFTextStripper {
+
+        RunRecorder() throws IOException {
+            super.setSortByPosition(true);
+        }
+
+        /** Records the runs of {@code document} after those of the documents recorded before it. */
+        void record(PDDocument document) throws IOException {
+            getText(document);
+            pageOffset += document.getNumberOfPages();
+        }
+
+        @Override
+        protected void writeString(String text, List<TextPosition> textPositions) {
+            if (textPositions.isEmpty()) {
+                return;
+            }
+            TextPosition firstChar = textPositions.get(0);
+            String name = firstChar.getFont() != null ? firstChar.getFont().getName() : null;
+            if (!"word".equals(runs) || text.length() != textPositions.size()) {
+                record(text, firstChar, textPositions.get(textPositions.size() - 1), name);
+                return;
+            }
+            int start = 0;
+            for (int end = 1; end <= text.length(); end++) {
+                if (end == text.length() || text.charAt(end) == ' ') {
+                    record(text.substring(start, end), textPositions.get(start), textPositions.get(end - 1), name);
+                    start = end;
+                }
+            }
+        }
+
+        private void record(String text, TextPosition firstChar, TextPosition lastChar, String name) {
+            int i = texts.size();
+            if (i == y.length) {
+                y = Arrays.copyOf(y, i * 2);
+                x = Arrays.copyOf(x, i * 2);
+                maxX = Arrays.copyOf(maxX, i * 2);
+                fontSize = Arrays.copyOf(fontSize, i * 2);
+                fontName = Arrays.copyOf(fontName, i * 2);
+                page = Arrays.copyOf(page, i * 2);
+            }
+            texts.add(text);
+            y[i] = firstChar.getYDirAdj();
+            x[i] = firstChar.getXDirAdj();
+            maxX[i] = lastChar.getEndX();
+            fontSize[i] = firstChar.getFontSizeInPt();
+            fontName[i] = name;
+            page[i] = pageOffset + getCurrentPageNo();
+        }
+    }
+}
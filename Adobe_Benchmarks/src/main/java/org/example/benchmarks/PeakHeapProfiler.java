@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports {@code peakHeapMb}: the peak occupancy of the survivor and old generation pools during an
+ * iteration, which starts from a full GC and reset peaks, and the largest value over all iterations.
+ * Eden is left out, since it fills with short-lived garbage up to its size whatever the benchmark
+ * holds on to. The pool peaks are summed, so the figure is an upper bound when they peak at
+ * different times. With {@code Mode.SingleShotTime} an iteration is one invocation, and the figure
+ * is the working set of a single operation.
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+
+    public PeakHeapProfiler() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && !pool.getName().contains("Eden")) {
+                pools.add(pool);
+            }
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Peak survivor and old generation occupancy per iteration";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        System.gc();
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return Collections.singletonList(new ScalarResult("peakHeapMb", peak / MB, "MB", AggregationPolicy.MAX));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.example.SectionIndex;
+import org.example.core.DocumentLayout;
+import org.example.core.DocumentOutline;
+import org.example.core.OutlineExtractor;
+import org.example.core.SectionTextExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end latency per document on the bundled sample folders: every operation loads the next PDF
+ * of the folder, in path order, and runs it through the Adobe_1A or the Adobe_1B pipeline. Sample
+ * time mode reports the latency distribution across documents. The folders are resolved against the
+ * working directory, so run from the repository root or pass {@code -p samples=<dir>}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SampleDocumentBenchmark {
+
+    @Param({"Adobe_1A/PDF_Folder_Round1A", "Adobe_1B/PDF_Folder_Round1B"})
+    public String samples;
+
+    private List<Path> pdfFiles;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get(samples))) {
+            pdfFiles = files.filter(Files::isRegularFile)
+                            .filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
+                            .sorted()
+                            .collect(Collectors.toList());
+        }
+        if (pdfFiles.isEmpty()) {
+            throw new IOException("No PDF files found in " + Paths.get(samples).toAbsolutePath());
+        }
+    }
+
+    private Path nextFile() {
+        Path file = pdfFiles.get(next);
+        next = (next + 1) % pdfFiles.size();
+        return file;
+    }
+
+    /** What Adobe_1A does per document: load, one stripping pass, title and headings. */
+    @Benchmark
+    public DocumentOutline outline() throws IOException {
+        try (PDDocument document = PDDocument.load(nextFile().toFile())) {
+            OutlineExtractor extractor = new OutlineExtractor();
+            DocumentLayout layout = extractor.extractLayout(document);
+            return new DocumentOutline(extractor.extractTitle(document, layout), extractor.extractHeadings(layout));
+        }
+    }
+
+    /** What Adobe_1B does per document: load, extract sections with body text and index them. */
+    @Benchmark
+    public SectionIndex sections() throws IOException {
+        Path file = nextFile();
+        try (PDDocument document = PDDocument.load(file.toFile())) {
+            SectionTextExtractor extractor = new SectionTextExtractor(2000);
+            DocumentLayout layout = extractor.extractLayout(document);
+            SectionIndex index = new SectionIndex();
+            for (SectionTextExtractor.Section section : extractor.extractSections(layout)) {
+                index.add(file.getFileName().toString(), section.heading, section.text);
+            }
+            return index;
+        }
+    }
+}
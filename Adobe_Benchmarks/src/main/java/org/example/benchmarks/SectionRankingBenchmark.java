@@ -0,0 +1,147 @@
+package org.example.benchmarks;
+
+import org.example.SectionIndex;
+import org.example.VectorIndex;
+import org.example.core.OutlineData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ranking a collection's section headings through {@link SectionIndex} with the linear
+ * keyword scan PersonaExtractor used before, on synthetic headings whose words follow a Zipf
+ * distribution. {@code vectorSearchTop10} is the cosine scan of semantic ranking over random unit
+ * vectors of the size all-MiniLM-L6-v2 produces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SectionRankingBenchmark {
+
+    private static final String[] COMMON_WORDS = {"the", "of", "and", "for", "in", "to", "a", "with"};
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final String QUERY = "Plan the rollout of term12 and term250 for term3000 with term15000";
+    private static final int EMBEDDING_DIMENSION = 384;
+
+    @Param({"10000", "100000", "1000000"})
+    public int sections;
+
+    private List<OutlineData> headings;
+    private SectionIndex index;
+    private VectorIndex vectors;
+    private float[] queryVector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        headings = syntheticHeadings(sections, random);
+        index = buildIndex();
+        vectors = new VectorIndex(EMBEDDING_DIMENSION, sections);
+        for (int i = 0; i < sections; i++) {
+            vectors.add(randomUnitVector(random));
+        }
+        queryVector = randomUnitVector(random);
+    }
+
+    @Benchmark
+    public SectionIndex buildIndex() {
+        SectionIndex built = new SectionIndex();
+        for (int i = 0; i < headings.size(); i++) {
+            built.add("doc" + (i % 50) + ".pdf", headings.get(i));
+        }
+        return built;
+    }
+
+    @Benchmark
+    public List<SectionIndex.Hit> indexedSearch() {
+        return index.search(QUERY);
+    }
+
+    @Benchmark
+    public List<SectionIndex.Hit> indexedSearchTop10() {
+        return index.search(QUERY, 10);
+    }
+
+    @Benchmark
+    public List<SectionIndex.Hit> vectorSearchTop10() {
+        return vectors.search(queryVector, 10);
+    }
+
+    /** The ranking PersonaExtractor did before the index: lower-case every heading, then contains() per keyword. */
+    @Benchmark
+    public List<int[]> linearScan() {
+        List<String> keywords = Arrays.asList(QUERY.toLowerCase().replaceAll("[^a-zA-Z0-9 ]", "").split("\\s+"));
+        List<int[]> ranked = new ArrayList<>();
+        for (int i = 0; i < headings.size(); i++) {
+            String lowerText = headings.get(i).text.toLowerCase();
+            int score = 0;
+            for (String keyword : keywords) {
+                if (lowerText.contains(keyword)) {
+                    score++;
+                }
+            }
+            if (score > 0) {
+                ranked.add(new int[]{i, score});
+            }
+        }
+        ranked.sort((a, b) -> Integer.compare(b[1], a[1]));
+        return ranked;
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[EMBEDDING_DIMENSION];
+        double sum = 0;
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] = (float) random.nextGaussian();
+            sum += vector[d] * vector[d];
+        }
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] /= (float) Math.sqrt(sum);
+        }
+        return vector;
+    }
+
+    static List<OutlineData> syntheticHeadings(int count, Random random) {
+        double[] cumulative = new double[VOCABULARY_SIZE];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+
+        List<OutlineData> headings = new ArrayList<>(count);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.setLength(0);
+            int words = 3 + random.nextInt(6);
+            for (int w = 0; w < words; w++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                rank = rank < 0 ? -rank - 1 : rank;
+                if (w > 0) {
+                    text.append(' ');
+                }
+                text.append(rank < COMMON_WORDS.length ? COMMON_WORDS[rank] : "Term" + rank);
+            }
+            headings.add(new OutlineData("H" + (1 + random.nextInt(3)), text.toString(), 1 + random.nextInt(50)));
+        }
+        return headings;
+    }
+}
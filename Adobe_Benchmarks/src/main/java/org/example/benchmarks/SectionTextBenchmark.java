@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.example.core.DocumentLayout;
+import org.example.core.OutlineData;
+import org.example.core.OutlineExtractor;
+import org.example.core.SectionTextExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of attaching body text to sections compared with the heading-only path Adobe_1B used before.
+ * Run with {@code -prof gc} to compare allocation per operation as well as time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SectionTextBenchmark {
+
+    @Param({"10", "100"})
+    public int pages;
+
+    private PDDocument document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        document = SyntheticPdf.create(pages);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    public List<OutlineData> headingsOnly() throws IOException {
+        return new OutlineExtractor().extractHeadings(document);
+    }
+
+    @Benchmark
+    public List<SectionTextExtractor.Section> sectionText() throws IOException {
+        SectionTextExtractor extractor = new SectionTextExtractor(2000);
+        DocumentLayout layout = extractor.extractLayout(document);
+        return extractor.extractSections(layout);
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Wall time from launching the shaded jar to its JSON output being written and the process exiting,
+ * for a single sample PDF. {@code cold} is how the Docker image started before: no class archive and
+ * an empty PDFBox font cache on every launch. {@code cds} uses an AppCDS archive and font cache made by
+ * a training run in setup, the way the Dockerfile builds them. Run from the repository root after
+ * {@code mvn package}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+
+    @Param({"Adobe_1A/target/Adobe_1A-1.0-SNAPSHOT.jar"})
+    public String jar;
+
+    @Param({"Adobe_1A/PDF_Folder_Round1A/blockchain_sample_1.pdf"})
+    public String sample;
+
+    @Param({"cold", "cds"})
+    public String mode;
+
+    private Path workDir;
+    private Path inputDir;
+    private Path outputDir;
+    private Path fontCacheDir;
+    private Path archive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        workDir = Files.createTempDirectory("startup-benchmark");
+        inputDir = Files.createDirectories(workDir.resolve("input"));
+        outputDir = workDir.resolve("output");
+        fontCacheDir = Files.createDirectories(workDir.resolve("fonts"));
+        archive = workDir.resolve("app.jsa");
+        Files.copy(Paths.get(sample), inputDir.resolve(Paths.get(sample).getFileName()));
+
+        if ("cds".equals(mode)) {
+            launch("-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=off");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearOutput() throws IOException {
+        delete(outputDir);
+        if ("cold".equals(mode)) {
+            Files.deleteIfExists(fontCacheDir.resolve(".pdfbox.cache"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(workDir);
+    }
+
+    @Benchmark
+    public int startToFirstOutput() throws IOException, InterruptedException {
+        int exitCode = "cds".equals(mode) ? launch("-XX:SharedArchiveFile=" + archive) : launch();
+        try (Stream<Path> outputs = Files.list(outputDir)) {
+            if (outputs.noneMatch(p -> p.toString().endsWith(".json"))) {
+                throw new IllegalStateException("No output written to " + outputDir);
+            }
+        }
+        return exitCode;
+    }
+
+    private int launch(String... jvmOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(jvmOptions));
+        command.add("-Dpdfbox.fontcache=" + fontCacheDir);
+        command.add("-jar");
+        command.add(Paths.get(jar).toAbsolutePath().toString());
+
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true)
+                                                          .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("PDF_INPUT_DIR", inputDir.toString());
+        builder.environment().put("PDF_OUTPUT_DIR", outputDir.toString());
+        for (String setting : List.of("PDF_CACHE_DIR", "PDF_WATCH_MODE", "PDF_SERVER_PORT")) {
+            builder.environment().remove(setting);
+        }
+        return builder.start().waitFor();
+    }
+
+    private static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.example.core.DocumentLayout;
+import org.example.core.DocumentLoader;
+import org.example.core.DocumentOutline;
+import org.example.core.OutlineExtractor;
+import org.example.core.StreamingOutlineExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adobe_1A's in-memory and streaming modes on synthetic PDFs read from disk, loaded the way each mode
+ * loads it: in-memory keeps the parsed streams on the heap and every line in the layout, streaming
+ * spills the streams to scratch files and keeps only heading candidates. Every iteration is a single
+ * extraction, so the {@code peakHeapMb} that {@link PeakHeapProfiler} reports is the working set of
+ * one document, next to the allocation the GC profiler reports. To compare the modes at a fixed
+ * small heap instead, run with {@code -p pages=5000 -jvmArgsAppend -Xmx64m}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:+UseG1GC"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class StreamingBenchmark {
+
+    private static final long MB = 1024L * 1024L;
+
+    @Param({"in-memory", "streaming"})
+    public String mode;
+
+    @Param({"100", "1000", "5000"})
+    public int pages;
+
+    private Path pdfFile;
+    private DocumentLoader loader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdfFile = Files.createTempFile("streaming-benchmark", ".pdf");
+        try (PDDocument document = SyntheticPdf.create(pages)) {
+            document.save(pdfFile.toFile());
+        }
+        loader = new DocumentLoader(true, "streaming".equals(mode), 16 * MB, 64 * MB, null, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pdfFile);
+    }
+
+    @Benchmark
+    public DocumentOutline extract() throws IOException {
+        OutlineExtractor extractor = "streaming".equals(mode) ? new StreamingOutlineExtractor() : new OutlineExtractor();
+        try (DocumentLoader.OpenDocument opened = loader.open(pdfFile)) {
+            DocumentLayout layout = extractor.extractLayout(opened.document);
+            return new DocumentOutline(extractor.extractTitle(opened.document, layout), extractor.extractHeadings(layout));
+        }
+    }
+}
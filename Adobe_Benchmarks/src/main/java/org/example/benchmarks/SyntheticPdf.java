@@ -0,0 +1,38 @@
+package org.example.benchmarks;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.IOException;
+
+/** Builds in-memory test documents: a bold 18pt heading followed by 40 lines of 10pt body text per page. */
+final class SyntheticPdf {
+
+    private SyntheticPdf() {
+    }
+
+    static PDDocument create(int pages) throws IOException {
+        PDDocument document = new PDDocument();
+        for (int p = 1; p <= pages; p++) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA_BOLD, 18);
+                content.newLineAtOffset(72, 720);
+                content.showText("Chapter " + p + " Overview");
+                content.endText();
+                for (int line = 0; line < 40; line++) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.newLineAtOffset(72, 690 - line * 14);
+                    content.showText("Body text line " + line + " on page " + p + " lorem ipsum dolor sit amet consectetur");
+                    content.endText();
+                }
+            }
+        }
+        return document;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.benchmarks;
+
+import org.example.UnicodeTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizer throughput on English, Chinese and Japanese headings, against the regex keyword split
+ * PersonaExtractor used before, which dropped all non-ASCII text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TokenizerBenchmark {
+
+    @Param({"english", "chinese", "japanese"})
+    public String language;
+
+    private String[] headings;
+    private UnicodeTokenizer tokenizer;
+
+    @Setup
+    public void setUp() {
+        switch (language) {
+            case "chinese":
+                headings = new String[]{"区块链中的加密哈希函数", "了解公钥和私钥", "数字钱包的未来", "区块链与传统数据库", "技术深挖：共识机制"};
+                break;
+            case "japanese":
+                headings = new String[]{"ブロックチェーンにおける暗号ハッシュ関数", "公開鍵と秘密鍵を理解する", "デジタルウォレットの未来", "ユースケース", "技術的な詳細 2.0"};
+                break;
+            default:
+                headings = new String[]{"Understanding Public and Private Keys", "Cryptographic Hash Functions in Blockchain",
+                        "The Future of Digital Wallets", "Blockchain vs. Traditional Databases", "Technical Deep-Dive: Consensus (v2.0)"};
+        }
+        tokenizer = new UnicodeTokenizer();
+    }
+
+    @Benchmark
+    public void unicodeTokenizer(Blackhole blackhole) {
+        for (String heading : headings) {
+            tokenizer.tokenize(heading, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void regexSplit(Blackhole blackhole) {
+        for (String heading : headings) {
+            for (String token : heading.toLowerCase().replaceAll("[^a-zA-Z0-9 ]", "").split("\\s+")) {
+                blackhole.consume(token);
+            }
+        }
+    }
+}
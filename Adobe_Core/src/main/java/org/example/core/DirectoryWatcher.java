@@ -0,0 +1,205 @@
+package org.example.core;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Watches an input directory tree for PDFs, or any other files the filter accepts, that are added,
+ * modified or removed and hands them to a listener in batches.
+ *
+ * <p>A file is only reported once it has been quiet, with no further events and an unchanged size,
+ * for the debounce interval, so that a PDF that is still being copied in is not picked up half
+ * written. Sub-directories created while watching are registered as they appear. Removed files are
+ * reported too; listeners can tell them apart with {@link Files#exists}.
+ */
+public class DirectoryWatcher implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(List<Path> changedFiles) throws Exception;
+    }
+
+    private static class PendingFile {
+        long lastChange;
+        long size;
+    }
+
+    private final Path root;
+    private final long debounceMillis;
+    private final Predicate<Path> filter;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private final Map<Path, PendingFile> pending = new TreeMap<>();
+
+    public DirectoryWatcher(Path root, long debounceMillis) throws IOException {
+        this(root, debounceMillis, DirectoryWatcher::isPdf);
+    }
+
+    /** Reports only files for which {@code filter} returns true. */
+    public DirectoryWatcher(Path root, long debounceMillis, Predicate<Path> filter) throws IOException {
+        this.root = root;
+        this.debounceMillis = debounceMillis;
+        this.filter = filter;
+        this.watchService = root.getFileSystem().newWatchService();
+        registerTree(root);
+    }
+
+    /** {@code PDF_WATCH_MODE=true} keeps the application running and processes PDFs as they arrive. */
+    public static boolean isEnabled() {
+        return Settings.booleanFromEnv("PDF_WATCH_MODE");
+    }
+
+    /**
+     * Reads {@code PDF_WATCH_DEBOUNCE_MS} (default 1000), the time a file must stay unchanged before it
+     * is processed.
+     */
+    public static DirectoryWatcher fromEnvironment(Path root) throws IOException {
+        return fromEnvironment(root, DirectoryWatcher::isPdf);
+    }
+
+    public static DirectoryWatcher fromEnvironment(Path root, Predicate<Path> filter) throws IOException {
+        return new DirectoryWatcher(root, Settings.intFromEnv("PDF_WATCH_DEBOUNCE_MS", 1000), filter);
+    }
+
+    /**
+     * Blocks until interrupted, passing each batch of settled files to {@code listener} in path order.
+     * An exception thrown by the listener is logged and watching continues.
+     */
+    public void run(ChangeListener listener) throws InterruptedException {
+        System.out.println("Watching " + root + " for new or modified input files...");
+        long pollMillis = Math.max(10, debounceMillis / 4);
+        while (true) {
+            WatchKey key = pending.isEmpty() ? watchService.take() : watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+            while (key != null) {
+                handleEvents(key);
+                key = watchService.poll();
+            }
+
+            List<Path> settled = collectSettled(System.currentTimeMillis());
+            if (settled.isEmpty()) {
+                continue;
+            }
+            try {
+                listener.onChange(settled);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                System.err.println("Error processing changes in " + root + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void handleEvents(WatchKey key) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                System.err.println("Missed file system events, rescanning " + root);
+                markFilesUnder(root);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                // Files copied in together with the directory may predate its registration.
+                registerTreeQuietly(path);
+                markFilesUnder(path);
+            } else if (filter.test(path)) {
+                markChanged(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void markChanged(Path path) {
+        PendingFile file = pending.computeIfAbsent(path, p -> new PendingFile());
+        file.lastChange = System.currentTimeMillis();
+        file.size = sizeOf(path);
+    }
+
+    private List<Path> collectSettled(long now) {
+        List<Path> settled = new ArrayList<>();
+        Iterator<Map.Entry<Path, PendingFile>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = it.next();
+            PendingFile file = entry.getValue();
+            if (now - file.lastChange < debounceMillis) {
+                continue;
+            }
+            long size = sizeOf(entry.getKey());
+            if (size != file.size) {
+                // Still growing without reporting events, e.g. on some network file systems.
+                file.size = size;
+                file.lastChange = now;
+                continue;
+            }
+            settled.add(entry.getKey());
+            it.remove();
+        }
+        return settled;
+    }
+
+    private void markFilesUnder(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).filter(filter).forEach(this::markChanged);
+        } catch (IOException e) {
+            System.err.println("Error scanning " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void registerTreeQuietly(Path start) {
+        try {
+            registerTree(start);
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + start + ": " + e.getMessage());
+        }
+    }
+
+    public static boolean isPdf(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".pdf");
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.core;
+
+/**
+ * Per-document layout model produced by a single stripping pass. Lines are sorted by page and
+ * vertical position, and {@code features} holds their {@link LayoutFeatures} at the same indices; page
+ * geometry is indexed by zero-based page number. The body-font statistics cover every line of the
+ * document, even when {@code lines} only holds a subset of them.
+ */
+public class DocumentLayout {
+    public final LineStore lines;
+    public final LayoutFeatures features;
+    public final FontStatistics bodyFontStatistics;
+    public final float[] pageWidths;
+    public final float[] pageHeights;
+
+    /** Text runs handed to {@code writeString}, how many of them were merged into the previous line, and sort time. */
+    public int textRuns;
+    public int mergedRuns;
+    public long sortNanos;
+
+    /** Computes the features of {@code lines}, which must hold every line of the pages they cover. */
+    public DocumentLayout(LineStore lines, FontStatistics bodyFontStatistics, float[] pageWidths, float[] pageHeights) {
+        this(lines, LayoutFeatures.compute(lines, pageWidths, pageHeights), bodyFontStatistics, pageWidths, pageHeights);
+    }
+
+    public DocumentLayout(LineStore lines, LayoutFeatures features, FontStatistics bodyFontStatistics,
+                          float[] pageWidths, float[] pageHeights) {
+        this.lines = lines;
+        this.features = features;
+        this.bodyFontStatistics = bodyFontStatistics;
+        this.pageWidths = pageWidths;
+        this.pageHeights = pageHeights;
+    }
+
+    public int getPageCount() {
+        return pageWidths.length;
+    }
+}
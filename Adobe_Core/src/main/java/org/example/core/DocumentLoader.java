@@ -0,0 +1,252 @@
+package org.example.core;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens PDFs for both pipelines within a memory budget.
+ *
+ * <p>Files are read through a memory mapping ({@link MappedRandomAccessRead}) unless
+ * {@code PDF_INPUT_MODE=file}, which is the default on Windows: a mapping is only released when it
+ * is garbage collected, and Windows refuses to modify or delete a file while it is mapped. Small
+ * documents keep their parsed streams in main memory; documents above the mixed threshold keep at
+ * most {@code mainMemoryBytes} on the heap and spill the rest to scratch files, and streaming mode
+ * spills everything. With a budget, every open document reserves an estimate of its heap use, and
+ * {@link #open} blocks until the reservation fits, so a batch of large scans waits instead of
+ * running out of heap. A document whose estimate exceeds the whole budget runs alone.
+ */
+public class DocumentLoader {
+
+    private static final long MB = 1024L * 1024L;
+    /** Heap kept by the extractor itself per document, on top of its parsed streams. */
+    private static final long EXTRACTION_OVERHEAD = 8 * MB;
+
+    public static class OpenDocument implements Closeable {
+        public final PDDocument document;
+        private final Semaphore budget;
+        private final int reservedKb;
+
+        OpenDocument(PDDocument document, Semaphore budget, int reservedKb) {
+            this.document = document;
+            this.budget = budget;
+            this.reservedKb = reservedKb;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                document.close();
+            } finally {
+                if (budget != null) {
+                    budget.release(reservedKb);
+                }
+            }
+        }
+    }
+
+    private final boolean mapped;
+    private final boolean tempFileOnly;
+    private final long mixedThresholdBytes;
+    private final long mainMemoryBytes;
+    private final File scratchDir;
+    private final Semaphore budget;
+    private final int budgetKb;
+
+    public DocumentLoader(boolean mapped, boolean tempFileOnly, long mixedThresholdBytes, long mainMemoryBytes,
+                          File scratchDir, long budgetBytes) {
+        this.mapped = mapped;
+        this.tempFileOnly = tempFileOnly;
+        this.mixedThresholdBytes = mixedThresholdBytes;
+        this.mainMemoryBytes = mainMemoryBytes;
+        this.scratchDir = scratchDir;
+        this.budgetKb = (int) Math.min(Integer.MAX_VALUE, budgetBytes / 1024);
+        this.budget = budgetBytes > 0 ? new Semaphore(budgetKb, true) : null;
+    }
+
+    /**
+     * Reads {@code PDF_INPUT_MODE} ({@code mapped} or {@code file}; {@code file} on Windows),
+     * {@code PDF_MIXED_THRESHOLD_MB} (default 16), {@code PDF_MAIN_MEMORY_MB} (heap share of larger
+     * documents, default 64), {@code PDF_SCRATCH_DIR} and {@code PDF_MEMORY_BUDGET_MB} (unset, zero
+     * or negative: no admission control). {@code tempFileOnly} is streaming mode, which keeps no
+     * parsed streams on the heap at all.
+     */
+    public static DocumentLoader fromEnvironment(boolean tempFileOnly) {
+        String defaultMode = System.getProperty("os.name", "").startsWith("Windows") ? "file" : "mapped";
+        boolean mapped = !"file".equalsIgnoreCase(Settings.stringFromEnv("PDF_INPUT_MODE", defaultMode));
+        long mixedThreshold = Settings.intFromEnv("PDF_MIXED_THRESHOLD_MB", 16) * MB;
+        long mainMemory = Settings.intFromEnv("PDF_MAIN_MEMORY_MB", 64) * MB;
+        String scratchDir = Settings.stringFromEnv("PDF_SCRATCH_DIR", null);
+        long budget = Math.max(0, budgetFromEnv()) * MB;
+        return new DocumentLoader(mapped, tempFileOnly, mixedThreshold, mainMemory,
+                scratchDir != null ? new File(scratchDir) : null, budget);
+    }
+
+    /** {@code PDF_MEMORY_BUDGET_MB} as given, since {@link Settings#intFromEnv} would turn 0 into 1. */
+    private static int budgetFromEnv() {
+        String value = Settings.stringFromEnv("PDF_MEMORY_BUDGET_MB", null);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid PDF_MEMORY_BUDGET_MB=" + value);
+            return 0;
+        }
+    }
+
+    public OpenDocument open(Path pdfFile) throws IOException {
+        long size = Files.size(pdfFile);
+        int reservedKb = reserve(size, pdfFile.getFileName().toString());
+        try {
+            return new OpenDocument(load(pdfFile, size), budget, reservedKb);
+        } catch (IOException | RuntimeException e) {
+            release(reservedKb);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens another instance of {@code pdfFile}, with the same input mode and memory settings as
+     * {@link #open}, under a reservation already made with {@link #tryReserve}.
+     */
+    public PDDocument openReserved(Path pdfFile) throws IOException {
+        return load(pdfFile, Files.size(pdfFile));
+    }
+
+    /**
+     * Reserves budget for {@code copies} more instances of {@code pdfFile} without waiting. Returns the
+     * reservation to hand back to {@link #release}, or -1 when the budget has no room for them now.
+     * Callers that already hold a document must not wait for more, or two of them could block each
+     * other forever.
+     */
+    public int tryReserve(Path pdfFile, int copies) throws IOException {
+        if (budget == null) {
+            return 0;
+        }
+        long estimateKb = copies * (estimateBytes(Files.size(pdfFile)) / 1024);
+        if (estimateKb > budgetKb) {
+            return -1;
+        }
+        return budget.tryAcquire((int) estimateKb) ? (int) estimateKb : -1;
+    }
+
+    public void release(int reservedKb) {
+        if (budget != null && reservedKb > 0) {
+            budget.release(reservedKb);
+        }
+    }
+
+    private PDDocument load(Path pdfFile, long size) throws IOException {
+        MemoryUsageSetting setting = memoryUsageFor(size);
+        return mapped && size <= Integer.MAX_VALUE
+                ? loadMapped(pdfFile, setting)
+                : PDDocument.load(pdfFile.toFile(), setting);
+    }
+
+    public OpenDocument open(byte[] data, String name) throws IOException {
+        int reservedKb = reserve(data.length, name);
+        try {
+            PDDocument document = PDDocument.load(data, "", null, null, memoryUsageFor(data.length));
+            return new OpenDocument(document, budget, reservedKb);
+        } catch (IOException | RuntimeException e) {
+            release(reservedKb);
+            throw e;
+        }
+    }
+
+    /** Main memory only up to the mixed threshold, then a capped heap share backed by scratch files. */
+    public MemoryUsageSetting memoryUsageFor(long size) {
+        MemoryUsageSetting setting;
+        if (tempFileOnly) {
+            setting = MemoryUsageSetting.setupTempFileOnly();
+        } else if (size <= mixedThresholdBytes) {
+            return MemoryUsageSetting.setupMainMemoryOnly();
+        } else {
+            setting = MemoryUsageSetting.setupMixed(mainMemoryBytes);
+        }
+        if (scratchDir != null) {
+            setting.setTempDir(scratchDir);
+        }
+        return setting;
+    }
+
+    /** Heap a document of {@code size} bytes is expected to use: its in-memory streams, twice, plus extraction state. */
+    public long estimateBytes(long size) {
+        long inMemory = tempFileOnly ? 0 : size <= mixedThresholdBytes ? size : Math.min(size, mainMemoryBytes);
+        return 2 * inMemory + EXTRACTION_OVERHEAD;
+    }
+
+    /** Parses {@code pdfFile} from a memory mapping, which the document closes along with itself. */
+    public static PDDocument loadMapped(Path pdfFile, MemoryUsageSetting setting) throws IOException {
+        MappedRandomAccessRead source = MappedRandomAccessRead.open(pdfFile);
+        ScratchFile scratchFile = new ScratchFile(setting);
+        try {
+            PDFParser parser = new PDFParser(source, "", null, null, scratchFile);
+            parser.parse();
+            return parser.getPDDocument();
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            scratchFile.close();
+            throw e;
+        }
+    }
+
+    private int reserve(long size, String name) throws IOException {
+        if (budget == null) {
+            return 0;
+        }
+        long estimateKb = estimateBytes(size) / 1024;
+        if (estimateKb > budgetKb) {
+            System.out.println(name + " needs more than the memory budget; waiting to process it alone.");
+        }
+        int reservedKb = (int) Math.min(estimateKb, budgetKb);
+        try {
+            // The timed tryAcquire keeps the semaphore's fairness, unlike the untimed one. A fork/join
+            // worker that has to wait does so through managedBlock, so its pool can start a spare
+            // thread instead of running short of workers while documents wait for the budget.
+            if (!budget.tryAcquire(reservedKb, 0, TimeUnit.MILLISECONDS)) {
+                ForkJoinPool.managedBlock(new BudgetBlocker(budget, reservedKb));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for memory budget");
+        }
+        return reservedKb;
+    }
+
+    private static final class BudgetBlocker implements ForkJoinPool.ManagedBlocker {
+        private final Semaphore budget;
+        private final int kb;
+        private boolean acquired;
+
+        BudgetBlocker(Semaphore budget, int kb) {
+            this.budget = budget;
+            this.kb = kb;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            budget.acquire(kb);
+            acquired = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return acquired;
+        }
+    }
+}
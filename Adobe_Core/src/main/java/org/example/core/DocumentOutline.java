@@ -0,0 +1,16 @@
+package org.example.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DocumentOutline {
+    public String title;
+    public List<OutlineData> outline = new ArrayList<>();
+
+    public DocumentOutline() {}
+
+    public DocumentOutline(String title, List<OutlineData> outline) {
+        this.title = title;
+        this.outline = outline;
+    }
+}
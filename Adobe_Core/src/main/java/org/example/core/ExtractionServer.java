@@ -0,0 +1,253 @@
+package org.example.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resident HTTP front end for the extraction pipelines, on the JDK's built-in {@link HttpServer}.
+ *
+ * <p>Keeping one JVM alive means class loading, PDFBox font setup and JIT compilation are paid once
+ * instead of per batch. Each request runs on its own virtual thread when the JVM provides them
+ * (Java 21+), otherwise on a cached platform pool. At most {@code maxConcurrent} extraction requests
+ * run at a time; requests beyond that are answered with 503 right away rather than queued, so callers
+ * can back off. Responses are JSON; {@code GET /health} and {@code GET /metrics} are always available.
+ */
+public class ExtractionServer implements AutoCloseable {
+
+    /** One routed endpoint; the returned object is written as the JSON response body. */
+    @FunctionalInterface
+    public interface Endpoint {
+        Object handle(Request request) throws IOException;
+    }
+
+    public static class Request {
+        public final String method;
+        public final Map<String, List<String>> query;
+        public final String contentType;
+        public final byte[] body;
+
+        Request(String method, Map<String, List<String>> query, String contentType, byte[] body) {
+            this.method = method;
+            this.query = query;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public String parameter(String name) {
+            List<String> values = query.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        public List<String> parameters(String name) {
+            return query.getOrDefault(name, new ArrayList<>());
+        }
+
+        public boolean isJson() {
+            return contentType != null && contentType.toLowerCase().startsWith("application/json");
+        }
+    }
+
+    /** Answered with the given HTTP status and {@code {"error": message}}. */
+    public static class RequestException extends RuntimeException {
+        public final int status;
+
+        public RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long maxBodyBytes;
+    private final ObjectMapper mapper;
+    private final RunMetrics metrics;
+
+    public ExtractionServer(int port, int maxConcurrent, long maxBodyBytes, ObjectMapper mapper, RunMetrics metrics) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = VirtualThreads.newPerTaskExecutor(Executors::newCachedThreadPool);
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        this.maxBodyBytes = maxBodyBytes;
+        this.mapper = mapper;
+        this.metrics = metrics;
+        server.setExecutor(executor);
+        route("/health", request -> Map.of("status", "ok"), false);
+        route("/metrics", request -> metrics.report(), false);
+    }
+
+    public static boolean isEnabled() {
+        return System.getenv("PDF_SERVER_PORT") != null;
+    }
+
+    /**
+     * Reads {@code PDF_SERVER_PORT}, {@code PDF_SERVER_MAX_CONCURRENT} (default: number of CPU cores) and
+     * {@code PDF_SERVER_MAX_BODY_MB} (largest accepted upload, default 64).
+     */
+    public static ExtractionServer fromEnvironment(ObjectMapper mapper, RunMetrics metrics) throws IOException {
+        int port = Settings.intFromEnv("PDF_SERVER_PORT", 8080);
+        int maxConcurrent = Settings.intFromEnv("PDF_SERVER_MAX_CONCURRENT", Runtime.getRuntime().availableProcessors());
+        long maxBodyBytes = Settings.intFromEnv("PDF_SERVER_MAX_BODY_MB", 64) * 1024L * 1024L;
+        return new ExtractionServer(port, maxConcurrent, maxBodyBytes, mapper, metrics);
+    }
+
+    /** Routes {@code path} to an extraction endpoint, which counts against the concurrency limit. */
+    public void route(String path, Endpoint endpoint) {
+        route(path, endpoint, true);
+    }
+
+    private void route(String path, Endpoint endpoint, boolean limited) {
+        server.createContext(path, exchange -> {
+            try {
+                if (limited && !permits.tryAcquire()) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 503, Map.of("error", "Too many concurrent requests"));
+                    return;
+                }
+                try {
+                    Request request = readRequest(exchange);
+                    respond(exchange, 200, endpoint.handle(request));
+                } finally {
+                    if (limited) {
+                        permits.release();
+                    }
+                }
+            } catch (RequestException e) {
+                respond(exchange, e.status, Map.of("error", e.getMessage()));
+            } catch (Exception e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                respond(exchange, 500, Map.of("error", String.valueOf(e.getMessage())));
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * Runs {@code warmUp} {@code PDF_SERVER_WARMUP_ITERATIONS} times (default 20) so the extraction path
+     * is loaded and compiled before the first request, then starts accepting connections.
+     */
+    public void start(Endpoint warmUp) throws IOException {
+        int iterations = Settings.intFromEnv("PDF_SERVER_WARMUP_ITERATIONS", 20);
+        long startTime = System.nanoTime();
+        Request request = new Request("POST", new HashMap<>(), "application/pdf", warmUpDocument());
+        for (int i = 0; i < iterations; i++) {
+            warmUp.handle(request);
+        }
+        System.out.printf("Warm-up finished in %d ms.%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        server.start();
+        System.out.println("Listening on port " + server.getAddress().getPort());
+    }
+
+    /** Resolves a client-supplied path against {@code root} and refuses paths that leave it. */
+    public static Path resolveWithin(Path root, String path) {
+        Path base = root.toAbsolutePath().normalize();
+        Path resolved = base.resolve(path).normalize();
+        if (!resolved.startsWith(base)) {
+            throw new RequestException(400, "Path outside the input directory: " + path);
+        }
+        return resolved;
+    }
+
+    private Request readRequest(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        byte[] body = new byte[0];
+        if ("POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method)) {
+            body = readBody(exchange.getRequestBody());
+        }
+        return new Request(method, parseQuery(exchange.getRequestURI().getRawQuery()),
+                exchange.getRequestHeaders().getFirst("Content-Type"), body);
+    }
+
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBodyBytes) {
+                throw new RequestException(413, "Request body exceeds " + maxBodyBytes / (1024 * 1024) + " MB");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            query.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+        }
+        return query;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    /** A small document with headings and body text, enough to exercise every extraction stage. */
+    private static byte[] warmUpDocument() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int p = 1; p <= 3; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA_BOLD, 18);
+                    content.newLineAtOffset(72, 720);
+                    content.showText("Section " + p + " Overview");
+                    content.endText();
+                    for (int line = 0; line < 30; line++) {
+                        content.beginText();
+                        content.setFont(PDType1Font.HELVETICA, 10);
+                        content.newLineAtOffset(72, 690 - line * 14);
+                        content.showText("Body text line " + line + " of section " + p + " with a few more words");
+                        content.endText();
+                    }
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+}
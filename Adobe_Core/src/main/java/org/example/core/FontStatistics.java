@@ -0,0 +1,128 @@
+package org.example.core;
+
+import java.util.Arrays;
+
+/**
+ * Font-size histogram with a fixed resolution of {@link #RESOLUTION} points, updated one line at a
+ * time while a document is stripped. Sizes are counted in primitive bins, so no value is ever boxed.
+ * Every bin remembers the first exact size that fell into it and reports that value back, which keeps
+ * the heading thresholds derived from {@link #mode()} identical to the sizes found in the document.
+ *
+ * <p>The mean and the mode are maintained as lines are added. The mode only needs a rescan after the
+ * count of the current mode was decreased, and both that rescan and {@link #percentile(double)} are
+ * bounded by the fixed number of bins, not by the number of lines.
+ */
+public class FontStatistics {
+
+    public static final float RESOLUTION = 0.1f;
+    public static final float MAX_FONT_SIZE = 200.0f;
+
+    private static final int BINS = Math.round(MAX_FONT_SIZE / RESOLUTION) + 1;
+
+    private final int[] counts = new int[BINS];
+    private final float[] representatives = new float[BINS];
+    private long count;
+    private double sum;
+    private int modeBin = -1;
+    private boolean modeStale;
+
+    public void add(float fontSize) {
+        int bin = bin(fontSize);
+        if (counts[bin]++ == 0) {
+            representatives[bin] = fontSize;
+        }
+        count++;
+        sum += fontSize;
+        if (!modeStale && (modeBin < 0 || isBetterMode(bin, modeBin))) {
+            modeBin = bin;
+        }
+    }
+
+    /** Takes back a size previously passed to {@link #add(float)}, e.g. when a merged run enlarges a line. */
+    public void remove(float fontSize) {
+        int bin = bin(fontSize);
+        if (counts[bin] == 0) {
+            return;
+        }
+        counts[bin]--;
+        count--;
+        sum -= fontSize;
+        if (bin == modeBin) {
+            modeStale = true;
+        }
+    }
+
+    /** Adds all sizes of {@code other}; bins that are new to this histogram take over its representatives. */
+    public void addAll(FontStatistics other) {
+        for (int bin = 0; bin < BINS; bin++) {
+            if (other.counts[bin] > 0) {
+                if (counts[bin] == 0) {
+                    representatives[bin] = other.representatives[bin];
+                }
+                counts[bin] += other.counts[bin];
+            }
+        }
+        count += other.count;
+        sum += other.sum;
+        modeStale = true;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        modeBin = -1;
+        modeStale = false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** Most frequent size, ties going to the smaller size; {@code 0} when empty. */
+    public float mode() {
+        if (modeStale) {
+            modeBin = -1;
+            for (int bin = 0; bin < BINS; bin++) {
+                if (counts[bin] > 0 && (modeBin < 0 || isBetterMode(bin, modeBin))) {
+                    modeBin = bin;
+                }
+            }
+            modeStale = false;
+        }
+        return modeBin < 0 || counts[modeBin] == 0 ? 0 : representatives[modeBin];
+    }
+
+    public float mean() {
+        return count == 0 ? 0 : (float) (sum / count);
+    }
+
+    /** Size below which {@code fraction} of all counted lines fall, e.g. {@code 0.5} for the median. */
+    public float percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            seen += counts[bin];
+            if (seen >= rank) {
+                return representatives[bin];
+            }
+        }
+        return representatives[BINS - 1];
+    }
+
+    private boolean isBetterMode(int bin, int current) {
+        return counts[bin] > counts[current] || (counts[bin] == counts[current] && bin < current);
+    }
+
+    private static int bin(float fontSize) {
+        int bin = Math.round(fontSize / RESOLUTION);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+}
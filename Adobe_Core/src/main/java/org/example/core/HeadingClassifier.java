@@ -0,0 +1,105 @@
+package org.example.core;
+
+/**
+ * Decides which lines are headings from their font and their {@link LayoutFeatures}.
+ *
+ * <p>Font size and weight propose a level through {@link OutlineExtractor#headingLevel}, as before.
+ * Lines without letters, page numbers and running headers or footers are never headings. The other
+ * features feed a linear score that starts at {@link #BIAS}: long lines, sentences, table cells, lines
+ * packed between other rows and full-width text count against a line, an isolated, numbered or centered
+ * line counts for it, and a proposed heading is kept when the score stays positive. A bold, numbered,
+ * isolated line at body size is promoted to the level of its numbering depth, and a numbered line never
+ * gets a higher level than its depth ("2.1" is at most H2).
+ *
+ * <p>Only lines that pass {@link OutlineExtractor#isHeadingCandidate} can be headings, so
+ * {@link StreamingOutlineExtractor} may still drop every other line at the end of its page.
+ */
+public final class HeadingClassifier {
+
+    private static final float BIAS = 1.0f;
+
+    private static final int MAX_HEADING_WORDS = 20;
+    private static final float LONG_LINE_PENALTY = 1.5f;
+    private static final int SENTENCE_MIN_WORDS = 6;
+    private static final float SENTENCE_PENALTY = 0.8f;
+    private static final float TABLE_ROW_PENALTY = 1.2f;
+    private static final float SHARED_ROW_PENALTY = 0.6f;
+    private static final float FULL_WIDTH_RATIO = 0.85f;
+    private static final int FULL_WIDTH_MIN_WORDS = 8;
+    private static final float FULL_WIDTH_PENALTY = 0.5f;
+    /** Body text rows are about 1.2 font sizes apart. */
+    private static final float PACKED_GAP = 1.3f;
+    private static final float PACKED_PENALTY = 0.4f;
+    private static final int DEEP_INDENT_LEVEL = 2;
+    private static final float DEEP_INDENT_PENALTY = 0.3f;
+    private static final float ISOLATED_GAP = 1.5f;
+    private static final float ISOLATED_BONUS = 0.3f;
+    private static final float NUMBERED_BONUS = 0.3f;
+    private static final float CENTERED_BONUS = 0.2f;
+
+    private static final int PROMOTED_MAX_WORDS = 10;
+    private static final String[] LEVELS = {"H1", "H2", "H3"};
+
+    private HeadingClassifier() {
+    }
+
+    /** Returns "H1", "H2" or "H3" for line {@code line}, or {@code null} when it is not a heading. */
+    public static String level(LineStore lines, LayoutFeatures features, int line, float avgBodyFontSize) {
+        float fontSize = lines.fontSize(line);
+        boolean isBold = lines.isBold(line);
+        if (!OutlineExtractor.isHeadingCandidate(fontSize, isBold) || !features.hasLetters(line)
+                || features.isPageNumber(line) || features.isRepeated(line)) {
+            return null;
+        }
+
+        int depth = Math.min(LEVELS.length, features.numberingDepth(line));
+        String level = OutlineExtractor.headingLevel(fontSize, isBold, avgBodyFontSize);
+        if (level == null) {
+            boolean promoted = depth > 0 && isBold && features.wordCount(line) <= PROMOTED_MAX_WORDS
+                    && features.gapAbove(line) >= ISOLATED_GAP && features.rowPeers(line) == 0
+                    && !features.endsWithPeriod(line);
+            if (!promoted) {
+                return null;
+            }
+            level = LEVELS[depth - 1];
+        } else if (depth > 1 && level.compareTo(LEVELS[depth - 1]) < 0) {
+            level = LEVELS[depth - 1];
+        }
+        return score(features, line) > 0 ? level : null;
+    }
+
+    static float score(LayoutFeatures features, int line) {
+        float score = BIAS;
+        int words = features.wordCount(line);
+        if (words > MAX_HEADING_WORDS) {
+            score -= LONG_LINE_PENALTY;
+        }
+        if (features.endsWithPeriod(line) && words > SENTENCE_MIN_WORDS) {
+            score -= SENTENCE_PENALTY;
+        }
+        if (features.rowPeers(line) >= 2) {
+            score -= TABLE_ROW_PENALTY;
+        } else if (features.rowPeers(line) == 1) {
+            score -= SHARED_ROW_PENALTY;
+        }
+        if (features.widthRatio(line) > FULL_WIDTH_RATIO && words > FULL_WIDTH_MIN_WORDS) {
+            score -= FULL_WIDTH_PENALTY;
+        }
+        if (features.gapAbove(line) < PACKED_GAP && features.gapBelow(line) < PACKED_GAP) {
+            score -= PACKED_PENALTY;
+        }
+        if (features.indentLevel(line) >= DEEP_INDENT_LEVEL && !features.isCentered(line)) {
+            score -= DEEP_INDENT_PENALTY;
+        }
+        if (features.gapAbove(line) >= ISOLATED_GAP) {
+            score += ISOLATED_BONUS;
+        }
+        if (features.numberingDepth(line) > 0) {
+            score += NUMBERED_BONUS;
+        }
+        if (features.isCentered(line)) {
+            score += CENTERED_BONUS;
+        }
+        return score;
+    }
+}
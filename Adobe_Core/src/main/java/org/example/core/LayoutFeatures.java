@@ -0,0 +1,453 @@
+package org.example.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geometry and text features of every line of a {@link LineStore}, computed in one pass per page and
+ * stored in parallel primitive columns like the lines themselves; feature {@code i} belongs to line
+ * {@code i} of the store it was computed from.
+ *
+ * <p>Per line: its width relative to the page's text block, its indentation cluster, the vertical gap
+ * to the rows above and below in multiples of its font size, how many other lines share its row,
+ * the depth of a leading section number, its word count, and flags for centered lines, lines in the
+ * top or bottom margin band, page numbers and sentence-ending periods. A page only looks at its own
+ * lines, so pages, and the page ranges of {@link PageParallelExtractor}, can be computed independently
+ * and concatenated with {@link #addAll}.
+ *
+ * <p>Running headers and footers are found across pages: the text of each margin-band line, digits
+ * dropped, is counted once per page it occurs on, and {@link #isRepeated} is true when it occurs on
+ * enough of the pages seen.
+ */
+public class LayoutFeatures {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** Lines whose y differs by less than this share a row, as in {@link OutlineExtractor}'s line merging. */
+    private static final float ROW_TOLERANCE = 1.0f;
+    /** Left edges closer than this, in points, fall into the same indentation cluster. */
+    private static final float INDENT_TOLERANCE = 4.0f;
+    /** Gaps are capped at this many font sizes; the first and last row of a page measure to the page edge. */
+    private static final float MAX_GAP = 10.0f;
+    /** Top and bottom fraction of the page height in which running headers and footers live. */
+    private static final float MARGIN_BAND = 0.08f;
+    /** Centered lines are indented by at least this fraction of the text width, equally on both sides. */
+    private static final float CENTER_MIN_INDENT = 0.1f;
+    private static final float CENTER_TOLERANCE = 0.05f;
+    /** A margin text is repeated when it occurs on at least two pages and this fraction of all pages. */
+    private static final float REPEAT_FRACTION = 0.3f;
+    private static final int MAX_NUMBER_DIGITS = 3;
+    private static final String[] NUMBERING_KEYWORDS = {"chapter", "section", "part", "appendix"};
+
+    private static final byte CENTERED = 1;
+    private static final byte IN_MARGIN = 2;
+    private static final byte PAGE_NUMBER = 4;
+    private static final byte ENDS_WITH_PERIOD = 8;
+    private static final byte HAS_LETTERS = 16;
+
+    private float[] widthRatio = new float[INITIAL_CAPACITY];
+    private float[] gapAbove = new float[INITIAL_CAPACITY];
+    private float[] gapBelow = new float[INITIAL_CAPACITY];
+    private byte[] indentLevel = new byte[INITIAL_CAPACITY];
+    private byte[] numberingDepth = new byte[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int[] rowPeers = new int[INITIAL_CAPACITY];
+    private int[] wordCount = new int[INITIAL_CAPACITY];
+    private String[] marginText = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<String, Integer> marginTextPages = new HashMap<>();
+    private int pageCount;
+
+    private float[] sortedX = new float[0];
+    private float[] clusterStarts = new float[0];
+    private String[] pageTexts = new String[0];
+
+    /**
+     * Features of all lines of {@code lines}, which must be sorted by page and vertical position.
+     * Page geometry is indexed by zero-based page number, as in {@link DocumentLayout}.
+     */
+    public static LayoutFeatures compute(LineStore lines, float[] pageWidths, float[] pageHeights) {
+        LayoutFeatures features = new LayoutFeatures();
+        int from = 0;
+        while (from < lines.size()) {
+            int page = lines.page(from);
+            int to = from + 1;
+            while (to < lines.size() && lines.page(to) == page) {
+                to++;
+            }
+            features.addPage(lines, from, to, dimension(pageWidths, page), dimension(pageHeights, page));
+            from = to;
+        }
+        return features;
+    }
+
+    private static float dimension(float[] dimensions, int page) {
+        return page >= 1 && page <= dimensions.length ? dimensions[page - 1] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Forgets all lines and margin counts but keeps the allocated arrays, like {@link LineStore#clear()}. */
+    public void clear() {
+        size = 0;
+        marginTextPages.clear();
+        pageCount = 0;
+    }
+
+    /** Computes and appends the features of lines {@code from} to {@code to}, which make up one sorted page. */
+    public void addPage(LineStore lines, int from, int to, float pageWidth, float pageHeight) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        int base = size;
+        for (int i = 0; i < count; i++) {
+            reserve();
+        }
+        pageCount++;
+
+        float left = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        for (int line = from; line < to; line++) {
+            left = Math.min(left, lines.x(line));
+            right = Math.max(right, lines.maxX(line));
+        }
+        float textWidth = right > left ? right - left : (pageWidth > 0 ? pageWidth : 1);
+        int clusters = indentClusters(lines, from, to);
+
+        int rowStart = from;
+        while (rowStart < to) {
+            int rowEnd = rowStart + 1;
+            while (rowEnd < to && lines.y(rowEnd) - lines.y(rowStart) < ROW_TOLERANCE) {
+                rowEnd++;
+            }
+            float above = rowStart == from ? lines.y(rowStart) : lines.y(rowStart) - lines.y(rowStart - 1);
+            float below = rowEnd < to ? lines.y(rowEnd) - lines.y(rowEnd - 1)
+                    : pageHeight > 0 ? pageHeight - lines.y(rowEnd - 1) : Float.MAX_VALUE;
+            for (int line = rowStart; line < rowEnd; line++) {
+                int index = base + line - from;
+                float fontSize = Math.max(1, lines.fontSize(line));
+                gapAbove[index] = Math.min(MAX_GAP, Math.max(0, above) / fontSize);
+                gapBelow[index] = Math.min(MAX_GAP, Math.max(0, below) / fontSize);
+                rowPeers[index] = rowEnd - rowStart - 1;
+            }
+            rowStart = rowEnd;
+        }
+
+        int pageTextCount = 0;
+        if (pageTexts.length < count) {
+            pageTexts = new String[Math.max(count, pageTexts.length * 2)];
+        }
+        for (int line = from; line < to; line++) {
+            int index = base + line - from;
+            float x = lines.x(line);
+            float maxX = lines.maxX(line);
+            float leftIndent = x - left;
+            float rightIndent = right - maxX;
+            widthRatio[index] = (maxX - x) / textWidth;
+            indentLevel[index] = (byte) Math.min(Byte.MAX_VALUE, indentCluster(x, clusters));
+
+            byte lineFlags = textFeatures(lines, line, index);
+            if (leftIndent > CENTER_MIN_INDENT * textWidth && Math.abs(leftIndent - rightIndent) < CENTER_TOLERANCE * textWidth) {
+                lineFlags |= CENTERED;
+            }
+            float y = lines.y(line);
+            marginText[index] = null;
+            if (pageHeight > 0 && (y < MARGIN_BAND * pageHeight || y > (1 - MARGIN_BAND) * pageHeight)) {
+                lineFlags |= IN_MARGIN;
+                String text = marginText(lines, line);
+                marginText[index] = text;
+                if (text != null && !contains(pageTexts, pageTextCount, text)) {
+                    pageTexts[pageTextCount++] = text;
+                    marginTextPages.merge(text, 1, Integer::sum);
+                }
+            }
+            flags[index] = lineFlags;
+        }
+    }
+
+    /** Sorts the left edges of a page and records where each cluster of nearby edges starts. */
+    private int indentClusters(LineStore lines, int from, int to) {
+        int count = to - from;
+        if (sortedX.length < count) {
+            sortedX = new float[Math.max(count, sortedX.length * 2)];
+            clusterStarts = new float[sortedX.length];
+        }
+        for (int line = from; line < to; line++) {
+            sortedX[line - from] = lines.x(line);
+        }
+        Arrays.sort(sortedX, 0, count);
+        int clusters = 0;
+        for (int i = 0; i < count; i++) {
+            if (clusters == 0 || sortedX[i] - clusterStarts[clusters - 1] > INDENT_TOLERANCE) {
+                clusterStarts[clusters++] = sortedX[i];
+            }
+        }
+        return clusters;
+    }
+
+    private int indentCluster(float x, int clusters) {
+        int low = 0;
+        int high = clusters - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (clusterStarts[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Reads the line's characters once for word count, numbering and page-number shape. */
+    private byte textFeatures(LineStore lines, int line, int index) {
+        int length = lines.textLength(line);
+        int letters = 0;
+        int digits = 0;
+        int words = 0;
+        boolean inWord = false;
+        boolean romanOnly = true;
+        boolean of = false;
+        char previous = ' ';
+        char last = ' ';
+        for (int k = 0; k < length; k++) {
+            char c = lines.charAt(line, k);
+            if (Character.isWhitespace(c)) {
+                inWord = false;
+                previous = c;
+                continue;
+            }
+            if (!inWord) {
+                words++;
+                inWord = true;
+            }
+            if (Character.isDigit(c)) {
+                digits++;
+            } else if (Character.isLetter(c)) {
+                letters++;
+                romanOnly &= "ivxlc".indexOf(c) >= 0;
+                of |= (c == 'f' || c == 'F') && (previous == 'o' || previous == 'O');
+            }
+            previous = c;
+            last = c;
+        }
+
+        wordCount[index] = words;
+        numberingDepth[index] = (byte) numberingDepth(lines, line, length);
+
+        byte lineFlags = 0;
+        if (letters > 0) {
+            lineFlags |= HAS_LETTERS;
+        }
+        if (last == '.') {
+            lineFlags |= ENDS_WITH_PERIOD;
+        }
+        boolean pageNumber = digits > 0
+                ? letters == 0 || (letters == 2 && of)
+                        || (startsWithIgnoreCase(lines, line, 0, length, "page") && (letters == 4 || (letters == 6 && of)))
+                : letters > 0 && romanOnly && length <= 4;
+        if (pageNumber) {
+            lineFlags |= PAGE_NUMBER;
+        }
+        return lineFlags;
+    }
+
+    /**
+     * 1 for "3 Results", "IV. Results" or "Chapter 3", 2 for "3.1 Methods", 3 for "3.1.2 Sampling", and
+     * so on; 0 when the line does not start with a section number followed by a space.
+     */
+    private static int numberingDepth(LineStore lines, int line, int length) {
+        for (String keyword : NUMBERING_KEYWORDS) {
+            if (startsWithIgnoreCase(lines, line, 0, length, keyword)
+                    && length > keyword.length() + 1 && lines.charAt(line, keyword.length()) == ' '
+                    && Character.isLetterOrDigit(lines.charAt(line, keyword.length() + 1))) {
+                return 1;
+            }
+        }
+
+        int k = 0;
+        int depth = 0;
+        while (k < length) {
+            int start = k;
+            while (k < length && Character.isDigit(lines.charAt(line, k))) {
+                k++;
+            }
+            if (k == start || k - start > MAX_NUMBER_DIGITS) {
+                k = start;
+                break;
+            }
+            depth++;
+            if (k + 1 < length && lines.charAt(line, k) == '.' && Character.isDigit(lines.charAt(line, k + 1))) {
+                k++;
+            } else {
+                break;
+            }
+        }
+        if (depth == 0) {
+            while (k < length && k < 4 && "IVX".indexOf(lines.charAt(line, k)) >= 0) {
+                k++;
+            }
+            if (k == 0 || k >= length || (lines.charAt(line, k) != '.' && lines.charAt(line, k) != ')')) {
+                return 0;
+            }
+            depth = 1;
+        }
+        if (k < length && (lines.charAt(line, k) == '.' || lines.charAt(line, k) == ')')) {
+            k++;
+        }
+        return k < length && Character.isWhitespace(lines.charAt(line, k)) ? depth : 0;
+    }
+
+    private static boolean startsWithIgnoreCase(LineStore lines, int line, int offset, int length, String prefix) {
+        if (length - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(lines.charAt(line, offset + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The line's text lower-cased, without digits and whitespace, so "Page 3" and "Page 4" match; only
+     * built for margin-band lines. {@code null} when nothing is left.
+     */
+    private static String marginText(LineStore lines, int line) {
+        int length = lines.textLength(line);
+        StringBuilder text = new StringBuilder(length);
+        for (int k = 0; k < length; k++) {
+            char c = lines.charAt(line, k);
+            if (!Character.isDigit(c) && !Character.isWhitespace(c)) {
+                text.append(Character.toLowerCase(c));
+            }
+        }
+        return text.length() == 0 ? null : text.toString();
+    }
+
+    private static boolean contains(String[] values, int count, String value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Copies the features of line {@code index} of {@code source} to the end, without its page's margin counts. */
+    public void addFrom(LayoutFeatures source, int index) {
+        int target = reserve();
+        widthRatio[target] = source.widthRatio[index];
+        gapAbove[target] = source.gapAbove[index];
+        gapBelow[target] = source.gapBelow[index];
+        indentLevel[target] = source.indentLevel[index];
+        numberingDepth[target] = source.numberingDepth[index];
+        flags[target] = source.flags[index];
+        rowPeers[target] = source.rowPeers[index];
+        wordCount[target] = source.wordCount[index];
+        marginText[target] = source.marginText[index];
+    }
+
+    /** Adds the margin texts and pages counted by {@code source}, e.g. a page whose lines were only partly kept. */
+    public void addMarginCounts(LayoutFeatures source) {
+        source.marginTextPages.forEach((key, pages) -> marginTextPages.merge(key, pages, Integer::sum));
+        pageCount += source.pageCount;
+    }
+
+    /** Appends all lines of {@code source}, which must cover later pages than the lines already held. */
+    public void addAll(LayoutFeatures source) {
+        for (int i = 0; i < source.size; i++) {
+            addFrom(source, i);
+        }
+        addMarginCounts(source);
+    }
+
+    /** Width of the line relative to the text block of its page, from 0 to 1. */
+    public float widthRatio(int index) {
+        return widthRatio[index];
+    }
+
+    /** Distance to the previous row, or to the top of the page, in multiples of the line's font size. */
+    public float gapAbove(int index) {
+        return gapAbove[index];
+    }
+
+    /** Distance to the next row, or to the bottom of the page, in multiples of the line's font size. */
+    public float gapBelow(int index) {
+        return gapBelow[index];
+    }
+
+    /** 0 for the leftmost cluster of left edges on the page, 1 for the next one, and so on. */
+    public int indentLevel(int index) {
+        return indentLevel[index];
+    }
+
+    public int numberingDepth(int index) {
+        return numberingDepth[index];
+    }
+
+    /** Number of other lines on the same row, e.g. the other cells of a table row. */
+    public int rowPeers(int index) {
+        return rowPeers[index];
+    }
+
+    public int wordCount(int index) {
+        return wordCount[index];
+    }
+
+    public boolean isCentered(int index) {
+        return (flags[index] & CENTERED) != 0;
+    }
+
+    public boolean isInMargin(int index) {
+        return (flags[index] & IN_MARGIN) != 0;
+    }
+
+    /** "12", "- 12 -", "Page 12", "12 of 40" or a lower-case roman numeral. */
+    public boolean isPageNumber(int index) {
+        return (flags[index] & PAGE_NUMBER) != 0;
+    }
+
+    public boolean endsWithPeriod(int index) {
+        return (flags[index] & ENDS_WITH_PERIOD) != 0;
+    }
+
+    public boolean hasLetters(int index) {
+        return (flags[index] & HAS_LETTERS) != 0;
+    }
+
+    /** True for a running header or footer: margin-band text that recurs, up to its digits, across pages. */
+    public boolean isRepeated(int index) {
+        if ((flags[index] & IN_MARGIN) == 0 || marginText[index] == null) {
+            return false;
+        }
+        int pages = marginTextPages.getOrDefault(marginText[index], 0);
+        return pages >= 2 && pages >= REPEAT_FRACTION * pageCount;
+    }
+
+    private int capacity() {
+        return widthRatio.length;
+    }
+
+    private int reserve() {
+        if (size == capacity()) {
+            int newCapacity = capacity() * 2;
+            widthRatio = Arrays.copyOf(widthRatio, newCapacity);
+            gapAbove = Arrays.copyOf(gapAbove, newCapacity);
+            gapBelow = Arrays.copyOf(gapBelow, newCapacity);
+            indentLevel = Arrays.copyOf(indentLevel, newCapacity);
+            numberingDepth = Arrays.copyOf(numberingDepth, newCapacity);
+            flags = Arrays.copyOf(flags, newCapacity);
+            rowPeers = Arrays.copyOf(rowPeers, newCapacity);
+            wordCount = Arrays.copyOf(wordCount, newCapacity);
+            marginText = Arrays.copyOf(marginText, newCapacity);
+        }
+        return size++;
+    }
+}
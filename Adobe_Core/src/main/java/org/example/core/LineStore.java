@@ -0,0 +1,287 @@
+package org.example.core;
+
+import java.util.Arrays;
+
+/**
+ * Columnar buffer of text lines. Geometry and font data live in parallel primitive arrays. A line
+ * added as a {@link String} keeps that String, so the common case of a line that arrives as a single
+ * run copies nothing. Once a second run is merged into a line, the line moves to one shared character
+ * arena, where merging further runs is a plain append rather than a new {@link String}. A store that
+ * is cleared and reused, as the streaming extractor does for every page, allocates nothing for merged
+ * lines once its arrays have grown to the largest page seen.
+ */
+public class LineStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private float[] y = new float[INITIAL_CAPACITY];
+    private float[] x = new float[INITIAL_CAPACITY];
+    private float[] maxX = new float[INITIAL_CAPACITY];
+    private float[] fontSize = new float[INITIAL_CAPACITY];
+    private boolean[] bold = new boolean[INITIAL_CAPACITY];
+    private int[] page = new int[INITIAL_CAPACITY];
+    private int[] textStart = new int[INITIAL_CAPACITY];
+    private int[] textEnd = new int[INITIAL_CAPACITY];
+    /** Text of a line that is still the String it was added as; {@code null} once it lives in the arena. */
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY * 4);
+    private int size;
+
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+    private float[] floatScratch = new float[0];
+    private boolean[] boolScratch = new boolean[0];
+    private String[] stringScratch = new String[0];
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Forgets all lines but keeps the allocated arrays for the next page or document. */
+    public void clear() {
+        Arrays.fill(strings, 0, size, null);
+        size = 0;
+        text.setLength(0);
+    }
+
+    /** Adds a line; leading and trailing whitespace of {@code lineText} is dropped, as with {@link String#trim()}. */
+    public void add(CharSequence lineText, float y, float x, float maxX, float fontSize, boolean bold, int page) {
+        int start = 0;
+        int end = lineText.length();
+        while (start < end && lineText.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && lineText.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int index = reserve();
+        this.y[index] = y;
+        this.x[index] = x;
+        this.maxX[index] = maxX;
+        this.fontSize[index] = fontSize;
+        this.bold[index] = bold;
+        this.page[index] = page;
+        if (lineText instanceof String) {
+            strings[index] = ((String) lineText).substring(start, end);
+            return;
+        }
+        strings[index] = null;
+        this.textStart[index] = text.length();
+        text.append(lineText, start, end);
+        this.textEnd[index] = text.length();
+    }
+
+    /**
+     * Appends a text run to the most recently added line. The line's text is moved to the end of the
+     * arena first if it is still a String, so this is a plain append; the run is kept verbatim,
+     * including surrounding whitespace.
+     */
+    public void appendToLast(CharSequence runText, float maxX, float fontSize, boolean bold) {
+        int last = size - 1;
+        if (strings[last] != null) {
+            textStart[last] = text.length();
+            text.append(strings[last]);
+            strings[last] = null;
+        }
+        text.append(runText);
+        textEnd[last] = text.length();
+        this.maxX[last] = maxX;
+        this.fontSize[last] = Math.max(this.fontSize[last], fontSize);
+        this.bold[last] = this.bold[last] || bold;
+    }
+
+    /** Copies line {@code index} of {@code source} to the end of this store. */
+    public void addFrom(LineStore source, int index) {
+        int target = reserve();
+        y[target] = source.y[index];
+        x[target] = source.x[index];
+        maxX[target] = source.maxX[index];
+        fontSize[target] = source.fontSize[index];
+        bold[target] = source.bold[index];
+        page[target] = source.page[index];
+        strings[target] = source.strings[index];
+        if (strings[target] == null) {
+            textStart[target] = text.length();
+            text.append(source.text, source.textStart[index], source.textEnd[index]);
+            textEnd[target] = text.length();
+        }
+    }
+
+    public void addAll(LineStore source) {
+        for (int i = 0; i < source.size; i++) {
+            addFrom(source, i);
+        }
+    }
+
+    public float y(int index) {
+        return y[index];
+    }
+
+    public float x(int index) {
+        return x[index];
+    }
+
+    public float maxX(int index) {
+        return maxX[index];
+    }
+
+    public float fontSize(int index) {
+        return fontSize[index];
+    }
+
+    public boolean isBold(int index) {
+        return bold[index];
+    }
+
+    public int page(int index) {
+        return page[index];
+    }
+
+    public String text(int index) {
+        return strings[index] != null ? strings[index] : text.substring(textStart[index], textEnd[index]);
+    }
+
+    /** Appends at most {@code maxChars} characters of the line's text to {@code target} without copying it to a String. */
+    public void appendText(int index, StringBuilder target, int maxChars) {
+        if (strings[index] != null) {
+            target.append(strings[index], 0, Math.min(strings[index].length(), maxChars));
+        } else {
+            target.append(text, textStart[index], Math.min(textEnd[index], textStart[index] + maxChars));
+        }
+    }
+
+    /** Character {@code offset} of the line's text, so features can be read off the arena without a String. */
+    public char charAt(int index, int offset) {
+        return strings[index] != null ? strings[index].charAt(offset) : text.charAt(textStart[index] + offset);
+    }
+
+    public int textLength(int index) {
+        return strings[index] != null ? strings[index].length() : textEnd[index] - textStart[index];
+    }
+
+    /**
+     * Stable sort by page, then by vertical position. Lines arrive almost in order, so the merge sort
+     * below skips already ordered runs and typically finishes in a single linear pass.
+     */
+    public void sortByPosition() {
+        if (isSortedByPosition()) {
+            return;
+        }
+        if (order.length < size) {
+            order = new int[capacity()];
+            scratch = new int[capacity()];
+            floatScratch = new float[capacity()];
+            boolScratch = new boolean[capacity()];
+            stringScratch = new String[capacity()];
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, scratch, 0, size);
+
+        permute(y);
+        permute(x);
+        permute(maxX);
+        permute(fontSize);
+        permute(page);
+        permute(textStart);
+        permute(textEnd);
+        System.arraycopy(bold, 0, boolScratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            bold[i] = boolScratch[order[i]];
+        }
+        System.arraycopy(strings, 0, stringScratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            strings[i] = stringScratch[order[i]];
+        }
+        Arrays.fill(stringScratch, 0, size, null);
+    }
+
+    // The stripper already reports most documents in order; checking first spares the scratch arrays.
+    private boolean isSortedByPosition() {
+        for (int i = 1; i < size; i++) {
+            if (lessThan(i, i - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean lessThan(int a, int b) {
+        if (page[a] != page[b]) {
+            return page[a] < page[b];
+        }
+        return Float.compare(y[a], y[b]) < 0;
+    }
+
+    private void mergeSort(int[] indices, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = indices[i];
+                int j = i - 1;
+                while (j >= from && lessThan(value, indices[j])) {
+                    indices[j + 1] = indices[j];
+                    j--;
+                }
+                indices[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(indices, buffer, from, mid);
+        mergeSort(indices, buffer, mid, to);
+        if (!lessThan(indices[mid], indices[mid - 1])) {
+            return;
+        }
+        System.arraycopy(indices, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && !lessThan(buffer[right], buffer[left]))) {
+                indices[i] = buffer[left++];
+            } else {
+                indices[i] = buffer[right++];
+            }
+        }
+    }
+
+    private void permute(float[] column) {
+        System.arraycopy(column, 0, floatScratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            column[i] = floatScratch[order[i]];
+        }
+    }
+
+    // Reuses the merge buffer, which is free again once the order has been computed.
+    private void permute(int[] column) {
+        System.arraycopy(column, 0, scratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            column[i] = scratch[order[i]];
+        }
+    }
+
+    private int capacity() {
+        return y.length;
+    }
+
+    private int reserve() {
+        if (size == capacity()) {
+            int newCapacity = capacity() * 2;
+            y = Arrays.copyOf(y, newCapacity);
+            x = Arrays.copyOf(x, newCapacity);
+            maxX = Arrays.copyOf(maxX, newCapacity);
+            fontSize = Arrays.copyOf(fontSize, newCapacity);
+            bold = Arrays.copyOf(bold, newCapacity);
+            page = Arrays.copyOf(page, newCapacity);
+            textStart = Arrays.copyOf(textStart, newCapacity);
+            textEnd = Arrays.copyOf(textEnd, newCapacity);
+            strings = Arrays.copyOf(strings, newCapacity);
+        }
+        return size++;
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.core;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link RandomAccessRead} over a read-only memory mapping of a whole file. The parser reads straight
+ * from the page cache: nothing is copied onto the heap up front and no read buffers are allocated per
+ * document. Files of 2 GB and more cannot be mapped in one piece; {@link #open} throws for them.
+ *
+ * <p>Java offers no supported way to unmap a buffer, so {@link #close} cannot release the mapping: it
+ * stays until the buffer is garbage collected. That only costs address space on Linux and macOS, but
+ * on Windows the file cannot be modified or deleted while it is mapped, which is why
+ * {@link DocumentLoader} reads files without a mapping there.
+ */
+public class MappedRandomAccessRead implements RandomAccessRead {
+
+    private ByteBuffer buffer;
+
+    private MappedRandomAccessRead(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static MappedRandomAccessRead open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Too large to map: " + file);
+            }
+            return new MappedRandomAccessRead(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException {
+        checkClosed();
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(b, offset, count);
+        return count;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return buffer.position();
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException("Invalid position " + position);
+        }
+        buffer.position((int) Math.min(position, buffer.limit()));
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return buffer.limit();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return buffer == null;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) & 0xff : -1;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException {
+        checkClosed();
+        buffer.position(buffer.position() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException {
+        checkClosed();
+        if (length > buffer.remaining()) {
+            throw new EOFException("Premature end of buffer reached");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return !buffer.hasRemaining();
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return buffer.remaining();
+    }
+
+    /** Stops further reads; the mapping itself is only released once the buffer is garbage collected. */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    private void checkClosed() throws IOException {
+        if (buffer == null) {
+            throw new IOException("RandomAccessRead already closed");
+        }
+    }
+}
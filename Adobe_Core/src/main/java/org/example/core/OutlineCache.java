@@ -0,0 +1,339 @@
+package org.example.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent, content-addressed cache of extracted outlines.
+ *
+ * <p>Entries are keyed by the SHA-256 of the PDF bytes and {@link OutlineExtractor#VERSION}, so a
+ * renamed or copied file still hits and an extractor change never serves stale results. Each entry is
+ * one small binary file, written to a temporary file and atomically moved into place: readers in this
+ * or any other process either see a complete entry or none. A hit refreshes the file's modification
+ * time, and once the cache outgrows its size limit the least recently used entries are deleted,
+ * along with temporary files left behind by writers that crashed.
+ */
+public class OutlineCache {
+
+    private static final int MAGIC = 0x4F55544C; // "OUTL"
+    private static final int FORMAT = 3;
+    private static final String SUFFIX = ".outline";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** A temporary file this old belongs to a writer that died before moving it into place. */
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000L;
+
+    /**
+     * A cached extraction result together with the page count the result was computed from. Entries
+     * written by {@link SectionTextExtractor} users also carry each heading's body text, capped at
+     * {@code sectionTextLimit} characters, and the leading lines of page 1; otherwise
+     * {@code sectionTexts} and {@code firstPageLines} are {@code null}.
+     */
+    public static class Entry {
+        public final int pageCount;
+        public final DocumentOutline outline;
+        public final int sectionTextLimit;
+        public final List<String> sectionTexts;
+        public final List<String> firstPageLines;
+
+        public Entry(int pageCount, DocumentOutline outline) {
+            this(pageCount, outline, 0, null, null);
+        }
+
+        public Entry(int pageCount, DocumentOutline outline, int sectionTextLimit, List<String> sectionTexts,
+                     List<String> firstPageLines) {
+            this.pageCount = pageCount;
+            this.outline = outline;
+            this.sectionTextLimit = sectionTextLimit;
+            this.sectionTexts = sectionTexts;
+            this.firstPageLines = firstPageLines;
+        }
+
+        public boolean hasSectionTexts(int limit) {
+            return sectionTexts != null && sectionTextLimit == limit;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong currentBytes = new AtomicLong();
+
+    public OutlineCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        deleteStaleTempFiles();
+        currentBytes.set(totalSize(listEntries()));
+    }
+
+    /**
+     * Reads {@code PDF_CACHE_DIR} and {@code PDF_CACHE_MAX_MB} (default 256). Returns {@code null},
+     * i.e. no caching, when no directory is configured or it cannot be created.
+     */
+    public static OutlineCache fromEnvironment() {
+        String directory = Settings.stringFromEnv("PDF_CACHE_DIR", null);
+        if (directory == null) {
+            return null;
+        }
+        long maxBytes = Settings.intFromEnv("PDF_CACHE_MAX_MB", 256) * 1024L * 1024L;
+        try {
+            return new OutlineCache(Paths.get(directory), maxBytes);
+        } catch (IOException e) {
+            System.err.println("Outline cache disabled, cannot use " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public String key(Path pdfFile) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(("outline-v" + OutlineExtractor.VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(pdfFile)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /** Returns the cached entry for {@code key}, or {@code null} on a miss or an unreadable entry. */
+    public Entry get(String key) {
+        Path file = entryFile(key);
+        Entry entry;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            entry = read(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Discarding unreadable cache entry " + file + ": " + e.getMessage());
+            deleteQuietly(file);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // A read-only cache or a concurrent eviction; the entry just ages as if it had not been used.
+        }
+        return entry;
+    }
+
+    public void put(String key, Entry entry) {
+        Path file = entryFile(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), key, TEMP_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                write(out, entry);
+            }
+            long size = Files.size(temp);
+            long replaced = Files.exists(file) ? Files.size(file) : 0;
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+            if (currentBytes.addAndGet(size - replaced) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not cache outline " + key + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Deletes least recently used entries until the cache is back under 90% of its size limit, and
+     * stale temporary files.
+     */
+    private synchronized void evict() throws IOException {
+        deleteStaleTempFiles();
+        List<Path> entries = listEntries();
+        long total = totalSize(entries);
+        if (total <= maxBytes) {
+            currentBytes.set(total);
+            return;
+        }
+        entries.sort(Comparator.comparing(OutlineCache::lastModified));
+        long target = maxBytes / 10 * 9;
+        for (Path entry : entries) {
+            if (total <= target) {
+                break;
+            }
+            long size = sizeOf(entry);
+            if (deleteQuietly(entry)) {
+                total -= size;
+            }
+        }
+        currentBytes.set(total);
+    }
+
+    private Path entryFile(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private List<Path> listEntries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, "*" + SUFFIX)) {
+                    files.forEach(entries::add);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void deleteStaleTempFiles() throws IOException {
+        long cutoff = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, "*" + TEMP_SUFFIX)) {
+                    for (Path file : files) {
+                        if (lastModified(file).toMillis() < cutoff) {
+                            deleteQuietly(file);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Entry read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+            throw new IOException("not an outline cache entry");
+        }
+        int pageCount = in.readInt();
+        String title = readString(in);
+        int sectionTextLimit = in.readInt();
+        int count = in.readInt();
+        List<OutlineData> outline = new ArrayList<>(count);
+        List<String> sectionTexts = sectionTextLimit < 0 ? null : new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String level = readString(in);
+            String text = readString(in);
+            int page = in.readInt();
+            outline.add(new OutlineData(level, text, page < 0 ? null : page));
+            if (sectionTexts != null) {
+                sectionTexts.add(readString(in));
+            }
+        }
+        List<String> firstPageLines = null;
+        if (sectionTexts != null) {
+            int lineCount = in.readInt();
+            firstPageLines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                firstPageLines.add(readString(in));
+            }
+        }
+        return new Entry(pageCount, new DocumentOutline(title, outline), Math.max(0, sectionTextLimit), sectionTexts, firstPageLines);
+    }
+
+    private static void write(DataOutputStream out, Entry entry) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeInt(entry.pageCount);
+        writeString(out, entry.outline.title);
+        out.writeInt(entry.sectionTexts == null ? -1 : entry.sectionTextLimit);
+        out.writeInt(entry.outline.outline.size());
+        for (int i = 0; i < entry.outline.outline.size(); i++) {
+            OutlineData heading = entry.outline.outline.get(i);
+            writeString(out, heading.level);
+            writeString(out, heading.text);
+            out.writeInt(heading.page == null ? -1 : heading.page);
+            if (entry.sectionTexts != null) {
+                writeString(out, entry.sectionTexts.get(i));
+            }
+        }
+        if (entry.sectionTexts != null) {
+            List<String> firstPageLines = entry.firstPageLines != null ? entry.firstPageLines : new ArrayList<>();
+            out.writeInt(firstPageLines.size());
+            for (String line : firstPageLines) {
+                writeString(out, line);
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long totalSize(List<Path> entries) {
+        long total = 0;
+        for (Path entry : entries) {
+            total += sizeOf(entry);
+        }
+        return total;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
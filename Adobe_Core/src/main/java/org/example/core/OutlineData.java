@@ -0,0 +1,18 @@
+package org.example.core;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OutlineData {
+    public String level;
+    public String text;
+    public Integer page;
+
+    public OutlineData() {} // Default constructor
+
+    public OutlineData(String level, String text, Integer page) {
+        this.level = level;
+        this.text = text;
+        this.page = page;
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Font-based outline extraction engine shared by the Adobe_1A and Adobe_1B pipelines. One stripping
+ * pass builds a {@link DocumentLayout}; the title and the H1-H3 headings are then derived from it.
+ */
+public class OutlineExtractor extends PDFTextStripper {
+
+    /**
+     * Bump whenever a change alters extracted outlines or section texts, so that {@link OutlineCache}
+     * entries are invalidated.
+     */
+    public static final int VERSION = 3;
+
+    protected static final float MIN_BODY_FONT_SIZE = 8.0f;
+    protected static final float MAX_BODY_FONT_SIZE = 14.0f;
+
+    // Lowest thresholds headingLevel can produce, reached when the body font size is MIN_BODY_FONT_SIZE.
+    private static final float MIN_BOLD_HEADING_SIZE = MIN_BODY_FONT_SIZE * 1.1f;
+    private static final double MIN_REGULAR_HEADING_SIZE = MIN_BODY_FONT_SIZE * 1.3f * 1.2;
+
+    protected LineStore textLines = new LineStore();
+    private FontStatistics bodyFontStatistics = new FontStatistics();
+    private PDFont lastFont;
+    private boolean lastFontBold;
+    private float[] pageWidths = new float[0];
+    private float[] pageHeights = new float[0];
+    private int currentPageNum;
+    private int textRuns;
+    private int mergedRuns;
+
+    // Page 1 only: arrival order of each glyph in the content stream, and per line the earliest one.
+    private final Map<TextPosition, Integer> contentOrder = new IdentityHashMap<>();
+    private int[] firstPageLineOrder = new int[64];
+    private List<String> firstPageLines = new ArrayList<>();
+
+    public OutlineExtractor() throws IOException {
+        super.setSortByPosition(true);
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        if (!textPositions.isEmpty()) {
+            TextPosition firstChar = textPositions.get(0);
+            TextPosition lastChar = textPositions.get(textPositions.size() - 1);
+
+            float currentY = firstChar.getYDirAdj();
+            float minX = firstChar.getXDirAdj();
+            float maxX = lastChar.getEndX();
+            float fontSize = firstChar.getFontSizeInPt();
+            boolean isBold = isBoldFont(firstChar.getFont());
+            textRuns++;
+
+            if (!textLines.isEmpty()) {
+                int last = textLines.size() - 1;
+                if (textLines.page(last) == currentPageNum &&
+                        Math.abs(textLines.y(last) - currentY) < 1.0 &&
+                        (minX - textLines.maxX(last) < 5)
+                ) {
+                    float previousFontSize = textLines.fontSize(last);
+                    textLines.appendToLast(text, maxX, fontSize, isBold);
+                    mergedRuns++;
+                    if (currentPageNum == 1) {
+                        firstPageLineOrder[last] = Math.min(firstPageLineOrder[last], contentOrder(textPositions));
+                    }
+                    if (textLines.fontSize(last) != previousFontSize) {
+                        if (isBodyFontSize(previousFontSize)) bodyFontStatistics.remove(previousFontSize);
+                        if (isBodyFontSize(textLines.fontSize(last))) bodyFontStatistics.add(textLines.fontSize(last));
+                    }
+                    return;
+                }
+            }
+            textLines.add(text, currentY, minX, maxX, fontSize, isBold, currentPageNum);
+            if (isBodyFontSize(fontSize)) bodyFontStatistics.add(fontSize);
+            if (currentPageNum == 1) {
+                int line = textLines.size() - 1;
+                if (line == firstPageLineOrder.length) {
+                    firstPageLineOrder = Arrays.copyOf(firstPageLineOrder, line * 2);
+                }
+                firstPageLineOrder[line] = contentOrder(textPositions);
+            }
+        }
+    }
+
+    @Override
+    protected void processTextPosition(TextPosition text) {
+        if (currentPageNum == 1) {
+            contentOrder.put(text, contentOrder.size());
+        }
+        super.processTextPosition(text);
+    }
+
+    private int contentOrder(List<TextPosition> textPositions) {
+        int first = Integer.MAX_VALUE;
+        for (TextPosition position : textPositions) {
+            Integer order = contentOrder.get(position);
+            if (order != null && order < first) {
+                first = order;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Page 1 is the first page written, so its lines are still the only ones in {@code textLines}.
+     * Remember them in content-stream order, the order a plain {@link PDFTextStripper} reports them.
+     */
+    @Override
+    protected void writePage() throws IOException {
+        super.writePage();
+        if (currentPageNum == 1) {
+            Integer[] lines = new Integer[textLines.size()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = i;
+            }
+            Arrays.sort(lines, (a, b) -> Integer.compare(firstPageLineOrder[a], firstPageLineOrder[b]));
+            for (int line : lines) {
+                if (textLines.textLength(line) > 0) {
+                    firstPageLines.add(textLines.text(line));
+                }
+            }
+            contentOrder.clear();
+        }
+    }
+
+    // Runs of the same font usually follow each other, so the lower-cased name is looked at once per font change.
+    private boolean isBoldFont(PDFont font) {
+        if (font != lastFont) {
+            String fontName = font != null ? font.getName() : null;
+            lastFont = font;
+            lastFontBold = (fontName != null) && fontName.toLowerCase().contains("bold");
+        }
+        return lastFontBold;
+    }
+
+    @Override
+    protected void startPage(PDPage page) throws IOException {
+        currentPageNum = getCurrentPageNo();
+        PDRectangle mediaBox = page.getMediaBox();
+        if (currentPageNum >= 1 && currentPageNum <= pageWidths.length) {
+            pageWidths[currentPageNum - 1] = mediaBox.getWidth();
+            pageHeights[currentPageNum - 1] = mediaBox.getHeight();
+        }
+        super.startPage(page);
+    }
+
+    /**
+     * Runs the one and only stripping pass over {@code document} and hands the collected lines over
+     * to a new {@link DocumentLayout}, together with their {@link LayoutFeatures}. Title detection and
+     * heading classification both read from it.
+     */
+    public DocumentLayout extractLayout(PDDocument document) throws IOException {
+        textLines = new LineStore();
+        bodyFontStatistics = new FontStatistics();
+        firstPageLines = new ArrayList<>();
+        pageWidths = new float[document.getNumberOfPages()];
+        pageHeights = new float[document.getNumberOfPages()];
+        textRuns = 0;
+        mergedRuns = 0;
+        super.getText(document);
+
+        long sortStart = System.nanoTime();
+        textLines.sortByPosition();
+        long sortNanos = System.nanoTime() - sortStart;
+
+        DocumentLayout layout = new DocumentLayout(textLines, bodyFontStatistics, pageWidths, pageHeights);
+        layout.textRuns = textRuns;
+        layout.mergedRuns = mergedRuns;
+        layout.sortNanos = sortNanos;
+        return layout;
+    }
+
+    public List<OutlineData> extractHeadings(PDDocument document) throws IOException {
+        return extractHeadings(extractLayout(document));
+    }
+
+    public List<OutlineData> extractHeadings(DocumentLayout layout) {
+        return classifyHeadings(layout.lines, layout.features, layout.bodyFontStatistics.mode());
+    }
+
+    protected List<OutlineData> classifyHeadings(LineStore textLines, LayoutFeatures features, float avgBodyFontSize) {
+        List<OutlineData> extractedHeadings = new ArrayList<>();
+        for (int i = 0; i < textLines.size(); i++) {
+            String level = HeadingClassifier.level(textLines, features, i, avgBodyFontSize);
+            if (level != null) {
+                extractedHeadings.add(new OutlineData(level, textLines.text(i), textLines.page(i)));
+            }
+        }
+        return extractedHeadings;
+    }
+
+    /**
+     * Returns "H1", "H2" or "H3" for a line of the given font, or {@code null} when its font alone does
+     * not make it a heading. {@link HeadingClassifier} has the final say.
+     */
+    protected static String headingLevel(float fontSize, boolean isBold, float avgBodyFontSize) {
+        if (avgBodyFontSize == 0) avgBodyFontSize = 10.0f;
+
+        float h1MinSize = avgBodyFontSize * 1.6f;
+        float h2MinSize = avgBodyFontSize * 1.3f;
+        float h3MinSize = avgBodyFontSize * 1.1f;
+
+        if (isBold) {
+            if (fontSize >= h1MinSize) return "H1";
+            if (fontSize >= h2MinSize) return "H2";
+            if (fontSize >= h3MinSize) return "H3";
+        } else {
+            if (fontSize > h1MinSize * 1.2) return "H1";
+            if (fontSize > h2MinSize * 1.2) return "H2";
+        }
+        return null;
+    }
+
+    /** False for lines that stay below every heading threshold, whatever the body font size turns out to be. */
+    protected static boolean isHeadingCandidate(float fontSize, boolean isBold) {
+        return isBold ? fontSize >= MIN_BOLD_HEADING_SIZE : fontSize > MIN_REGULAR_HEADING_SIZE;
+    }
+
+    /** Whether lines of {@code fontSize} count towards the body font size estimate. */
+    public static boolean isBodyFontSize(float fontSize) {
+        return fontSize >= MIN_BODY_FONT_SIZE && fontSize <= MAX_BODY_FONT_SIZE;
+    }
+
+    public String extractTitle(PDDocument document, DocumentLayout layout) {
+        PDDocumentInformation info = document.getDocumentInformation();
+        if (info != null && info.getTitle() != null && !info.getTitle().trim().isEmpty()) {
+            return info.getTitle().trim();
+        }
+
+        if (!layout.lines.isEmpty()) {
+            LineStore lines = layout.lines;
+            float maxFontSize = 0;
+            int titleLine = -1;
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.page(i) == 1) {
+                    if (lines.fontSize(i) > maxFontSize) {
+                        maxFontSize = lines.fontSize(i);
+                        titleLine = i;
+                    }
+                } else {
+                    break;
+                }
+            }
+            return titleLine >= 0 ? lines.text(titleLine) : "Untitled Document";
+        }
+
+        return "Untitled Document";
+    }
+
+    /**
+     * The first {@code count} non-empty lines of page 1 from the last {@link #extractLayout} call, in
+     * content-stream order rather than by position, so that e.g. a watermark drawn last comes last.
+     */
+    public List<String> getFirstPageLines(int count) {
+        return new ArrayList<>(firstPageLines.subList(0, Math.min(count, firstPageLines.size())));
+    }
+
+    /** Convenience for callers that only need the result: one layout pass, then title and headings. */
+    public DocumentOutline extractOutline(PDDocument document) throws IOException {
+        DocumentLayout layout = extractLayout(document);
+        return new DocumentOutline(extractTitle(document, layout), extractHeadings(layout));
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Extracts the layout of one document by stripping contiguous page ranges in parallel.
+ *
+ * <p>{@link PDDocument} is not thread-safe, so every range is stripped by its own
+ * {@link OutlineExtractor} over its own {@code PDDocument} instance. Opening a document only parses
+ * the cross-reference table; content streams are decoded lazily, so each worker only pays for its pages.
+ * Because lines are never merged across pages and every range is already sorted, concatenating the
+ * ranges in page order, and adding up their font histograms and layout features, yields exactly the
+ * layout a sequential pass would produce.
+ *
+ * <p>The range instances are opened through the caller's {@link DocumentLoader}, so they share its input
+ * mode and memory settings and count against its memory budget.
+ */
+public class PageParallelExtractor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int minPages;
+
+    public PageParallelExtractor(int parallelism, int minPages) {
+        this.parallelism = parallelism;
+        this.minPages = minPages;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Reads {@code PDF_PAGE_PARALLELISM} (number of page ranges stripped concurrently) and
+     * {@code PDF_PAGE_PARALLEL_MIN_PAGES} (smallest document worth splitting, default 16).
+     * Returns {@code null} when page-parallel mode is disabled, which is the default.
+     */
+    public static PageParallelExtractor fromEnvironment() {
+        int parallelism = Settings.intFromEnv("PDF_PAGE_PARALLELISM", 1);
+        if (parallelism <= 1) {
+            return null;
+        }
+        int minPages = Settings.intFromEnv("PDF_PAGE_PARALLEL_MIN_PAGES", 16);
+        return new PageParallelExtractor(parallelism, minPages);
+    }
+
+    public boolean shouldSplit(int pageCount) {
+        return pageCount >= minPages && pageCount > 1;
+    }
+
+    /**
+     * Strips {@code pdfFile} in page ranges, each over its own instance opened by {@code loader}. Returns
+     * {@code null} when the memory budget has no room for those instances right now; the caller then
+     * strips the document it already holds sequentially.
+     */
+    public DocumentLayout extractLayout(Path pdfFile, int pageCount, DocumentLoader loader) throws IOException {
+        int rangeCount = Math.min(parallelism, pageCount);
+        int rangeSize = (pageCount + rangeCount - 1) / rangeCount;
+
+        int reservedKb = loader.tryReserve(pdfFile, (pageCount + rangeSize - 1) / rangeSize);
+        if (reservedKb < 0) {
+            return null;
+        }
+        try {
+            return extractRanges(pdfFile, pageCount, rangeSize, loader);
+        } finally {
+            loader.release(reservedKb);
+        }
+    }
+
+    private DocumentLayout extractRanges(Path pdfFile, int pageCount, int rangeSize, DocumentLoader loader) throws IOException {
+        List<Future<DocumentLayout>> ranges = new ArrayList<>();
+        for (int startPage = 1; startPage <= pageCount; startPage += rangeSize) {
+            int firstPage = startPage;
+            int lastPage = Math.min(pageCount, startPage + rangeSize - 1);
+            ranges.add(executor.submit(() -> extractRange(pdfFile, firstPage, lastPage, loader)));
+        }
+
+        LineStore lines = new LineStore();
+        LayoutFeatures features = new LayoutFeatures();
+        FontStatistics bodyFontStatistics = new FontStatistics();
+        float[] pageWidths = new float[pageCount];
+        float[] pageHeights = new float[pageCount];
+        int textRuns = 0;
+        int mergedRuns = 0;
+        int firstPage = 1;
+        for (Future<DocumentLayout> range : ranges) {
+            DocumentLayout layout;
+            try {
+                layout = awaitRange(range);
+            } catch (IOException e) {
+                // The reservation is released on return, so the other ranges must not keep running.
+                for (Future<DocumentLayout> other : ranges) {
+                    other.cancel(true);
+                }
+                throw e;
+            }
+            lines.addAll(layout.lines);
+            features.addAll(layout.features);
+            bodyFontStatistics.addAll(layout.bodyFontStatistics);
+            textRuns += layout.textRuns;
+            mergedRuns += layout.mergedRuns;
+            int lastPage = Math.min(pageCount, firstPage + rangeSize - 1);
+            for (int page = firstPage; page <= lastPage && page <= layout.getPageCount(); page++) {
+                pageWidths[page - 1] = layout.pageWidths[page - 1];
+                pageHeights[page - 1] = layout.pageHeights[page - 1];
+            }
+            firstPage += rangeSize;
+        }
+        // Ranges are sorted, and their layout features computed, concurrently while they are stripped,
+        // so no separate sort time is reported.
+        DocumentLayout layout = new DocumentLayout(lines, features, bodyFontStatistics, pageWidths, pageHeights);
+        layout.textRuns = textRuns;
+        layout.mergedRuns = mergedRuns;
+        return layout;
+    }
+
+    private static DocumentLayout extractRange(Path pdfFile, int startPage, int endPage, DocumentLoader loader) throws IOException {
+        try (PDDocument document = loader.openReserved(pdfFile)) {
+            OutlineExtractor extractor = new OutlineExtractor();
+            extractor.setStartPage(startPage);
+            extractor.setEndPage(endPage);
+            return extractor.extractLayout(document);
+        }
+    }
+
+    private static DocumentLayout awaitRange(Future<DocumentLayout> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting page range", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to extract page range", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
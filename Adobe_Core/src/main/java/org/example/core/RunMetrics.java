@@ -0,0 +1,335 @@
+package org.example.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide timers and counters shared by the worker threads of one pipeline run.
+ *
+ * <p>Each document, and in Adobe_1B each collection, gets a {@link Timer} that charges elapsed time to
+ * the pipeline stages in turn. Stage times feed latency histograms for the whole run and are also
+ * emitted as {@link StageEvent}s for JDK Flight Recorder. {@link #writeReport} dumps everything as JSON
+ * to the file named by {@code PDF_RUN_REPORT}.
+ *
+ * <p>Memory stays bounded however long the process runs, as it does in watch and server mode: the
+ * histograms keep a fixed-size sample of their values, and the report lists only the most recent
+ * documents and collections.
+ */
+public class RunMetrics {
+
+    public enum Stage {
+        LOAD, STRIP, SORT, CLASSIFY, RANK, SERIALIZE
+    }
+
+    public enum Counter {
+        DOCUMENTS, PAGES, TEXT_RUNS, MERGED_RUNS, HEADINGS, CACHE_HITS, SKIPPED_DOCUMENTS, FAILED_DOCUMENTS
+    }
+
+    private static final int DEFAULT_REPORT_ITEMS = 1000;
+
+    private final String job;
+    private final Path reportFile;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Histogram[] stageLatencies = new Histogram[Stage.values().length];
+    private final Histogram documentLatency = new Histogram();
+    private final Histogram collectionLatency = new Histogram();
+    private final RecentItems documents;
+    private final RecentItems collections;
+
+    public RunMetrics(String job, Path reportFile) {
+        this(job, reportFile, DEFAULT_REPORT_ITEMS);
+    }
+
+    /** {@code maxItems} is the number of most recent documents, and of collections, the report lists. */
+    public RunMetrics(String job, Path reportFile, int maxItems) {
+        this.job = job;
+        this.reportFile = reportFile;
+        this.documents = new RecentItems(maxItems);
+        this.collections = new RecentItems(maxItems);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Reads {@code PDF_RUN_REPORT}, the JSON file {@link #writeReport} writes; without it nothing is
+     * written. {@code PDF_RUN_REPORT_ITEMS} (default 1000) caps the documents and collections it lists.
+     */
+    public static RunMetrics fromEnvironment(String job) {
+        String reportFile = Settings.stringFromEnv("PDF_RUN_REPORT", null);
+        int maxItems = Settings.intFromEnv("PDF_RUN_REPORT_ITEMS", DEFAULT_REPORT_ITEMS);
+        return new RunMetrics(job, reportFile != null ? Paths.get(reportFile) : null, maxItems);
+    }
+
+    public Timer startDocument(String name) {
+        return new Timer(name, true);
+    }
+
+    public Timer startCollection(String name) {
+        return new Timer(name, false);
+    }
+
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(Counter counter, long value) {
+        counters[counter.ordinal()].add(value);
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /** Writes the report so far to the {@code PDF_RUN_REPORT} file, if one is configured. */
+    public void writeReport(ObjectMapper mapper) throws IOException {
+        if (reportFile == null) {
+            return;
+        }
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        mapper.writeValue(reportFile.toFile(), report());
+    }
+
+    public RunReport report() {
+        RunReport report = new RunReport();
+        report.job = job;
+        report.started = Instant.ofEpochMilli(startMillis).toString();
+        report.wall_time_ms = millis(System.nanoTime() - startNanos);
+        for (Counter counter : Counter.values()) {
+            report.counters.put(name(counter), get(counter));
+        }
+        for (Stage stage : Stage.values()) {
+            Histogram histogram = stageLatencies[stage.ordinal()];
+            if (histogram.count() > 0) {
+                report.stages.put(name(stage), histogram.summary());
+            }
+        }
+        report.document_latency = documentLatency.summary();
+        report.collection_latency = collectionLatency.count() > 0 ? collectionLatency.summary() : null;
+        report.documents = documents.list();
+        report.collections = collections.list();
+        report.omitted_documents = documents.omitted();
+        report.omitted_collections = collections.omitted();
+        return report;
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * Times one document or collection. Not thread-safe: a timer belongs to the task processing its item.
+     */
+    public class Timer {
+        private final String item;
+        private final boolean document;
+        private final long start = System.nanoTime();
+        private final long[] stageNanos = new long[Stage.values().length];
+        private long mark = start;
+
+        Timer(String item, boolean document) {
+            this.item = item;
+            this.document = document;
+        }
+
+        /** Charges the time since the previous lap to {@code stage}. */
+        public void lap(Stage stage) {
+            long now = System.nanoTime();
+            record(stage, now - mark);
+            mark = now;
+        }
+
+        /**
+         * Charges the time since the previous lap to the stripping pass that produced {@code layout},
+         * splitting off its sort time, and counts its pages and text runs.
+         */
+        public void lapLayout(DocumentLayout layout) {
+            long now = System.nanoTime();
+            long sortNanos = Math.min(layout.sortNanos, now - mark);
+            record(Stage.STRIP, now - mark - sortNanos);
+            record(Stage.SORT, sortNanos);
+            mark = now;
+            add(Counter.PAGES, layout.getPageCount());
+            add(Counter.TEXT_RUNS, layout.textRuns);
+            add(Counter.MERGED_RUNS, layout.mergedRuns);
+        }
+
+        private void record(Stage stage, long nanos) {
+            stageNanos[stage.ordinal()] += nanos;
+            stageLatencies[stage.ordinal()].record(nanos);
+
+            StageEvent event = new StageEvent();
+            if (event.isEnabled()) {
+                event.item = item;
+                event.stage = name(stage);
+                event.stageDuration = nanos;
+                event.commit();
+            }
+        }
+
+        /** Ends the timer; {@code outcome} is e.g. {@code processed}, {@code skipped} or {@code failed}. */
+        public void finish(String outcome) {
+            long total = System.nanoTime() - start;
+            ItemReport report = new ItemReport();
+            report.name = item;
+            report.outcome = outcome;
+            report.total_ms = millis(total);
+            for (Stage stage : Stage.values()) {
+                if (stageNanos[stage.ordinal()] > 0) {
+                    report.stages_ms.put(name(stage), millis(stageNanos[stage.ordinal()]));
+                }
+            }
+            if (document) {
+                increment(Counter.DOCUMENTS);
+                if ("skipped".equals(outcome)) increment(Counter.SKIPPED_DOCUMENTS);
+                if ("failed".equals(outcome)) increment(Counter.FAILED_DOCUMENTS);
+                documentLatency.record(total);
+                documents.add(report);
+            } else {
+                collectionLatency.record(total);
+                collections.add(report);
+            }
+        }
+    }
+
+    public static class RunReport {
+        public String job;
+        public String started;
+        public double wall_time_ms;
+        public Map<String, Long> counters = new LinkedHashMap<>();
+        public Map<String, LatencySummary> stages = new LinkedHashMap<>();
+        public LatencySummary document_latency;
+        public LatencySummary collection_latency;
+        public List<ItemReport> documents;
+        public List<ItemReport> collections;
+        /** Older items that no longer fit in {@link #documents} and {@link #collections}. */
+        public long omitted_documents;
+        public long omitted_collections;
+    }
+
+    public static class LatencySummary {
+        public long count;
+        public double total_ms;
+        public double p50_ms;
+        public double p99_ms;
+        public double max_ms;
+    }
+
+    public static class ItemReport {
+        public String name;
+        public String outcome;
+        public double total_ms;
+        public Map<String, Double> stages_ms = new LinkedHashMap<>();
+    }
+
+    /** The most recent item reports, up to a fixed number; older ones are only counted. */
+    private static class RecentItems {
+        private final int capacity;
+        private final ArrayDeque<ItemReport> items;
+        private long omitted;
+
+        RecentItems(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            this.items = new ArrayDeque<>(Math.min(this.capacity, 64));
+        }
+
+        synchronized void add(ItemReport item) {
+            if (capacity == 0) {
+                omitted++;
+                return;
+            }
+            if (items.size() == capacity) {
+                items.removeFirst();
+                omitted++;
+            }
+            items.addLast(item);
+        }
+
+        synchronized List<ItemReport> list() {
+            return new ArrayList<>(items);
+        }
+
+        synchronized long omitted() {
+            return omitted;
+        }
+    }
+
+    /**
+     * Count, total and maximum are exact. Percentiles come from a uniform reservoir sample of at most
+     * {@link #RESERVOIR_SIZE} values, so they are exact until that many values have been recorded and
+     * estimates afterwards, while the memory per histogram stays fixed.
+     */
+    private static class Histogram {
+        private static final int RESERVOIR_SIZE = 2048;
+
+        private final long[] samples = new long[RESERVOIR_SIZE];
+        private final SplittableRandom random = new SplittableRandom();
+        private long count;
+        private long total;
+        private long max;
+
+        synchronized void record(long nanos) {
+            if (count < RESERVOIR_SIZE) {
+                samples[(int) count] = nanos;
+            } else {
+                long slot = random.nextLong(count + 1);
+                if (slot < RESERVOIR_SIZE) {
+                    samples[(int) slot] = nanos;
+                }
+            }
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized LatencySummary summary() {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, RESERVOIR_SIZE));
+            Arrays.sort(sorted);
+            LatencySummary summary = new LatencySummary();
+            summary.count = count;
+            summary.total_ms = millis(total);
+            if (count > 0) {
+                summary.p50_ms = millis(percentile(sorted, 0.50));
+                summary.p99_ms = millis(percentile(sorted, 0.99));
+                summary.max_ms = millis(max);
+            }
+            return summary;
+        }
+
+        /** Nearest-rank percentile of an ascending array. */
+        private static long percentile(long[] sorted, double fraction) {
+            int rank = (int) Math.ceil(fraction * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming extractor that also keeps the body text under each heading.
+ *
+ * <p>While a page is handed off, every body line is appended to the section of the most recent heading
+ * candidate. Section text lives in one reusable character arena and is capped at
+ * {@code maxSectionChars} per section, so memory stays bounded by the number of headings rather than by
+ * the length of the document. Once the body font size is known, candidates that turn out not to be
+ * headings are folded, with their text, into the preceding heading's section. Text before the first
+ * heading belongs to no section.
+ */
+public class SectionTextExtractor extends StreamingOutlineExtractor {
+
+    public static class Section {
+        public final OutlineData heading;
+        public final String text;
+
+        public Section(OutlineData heading, String text) {
+            this.heading = heading;
+            this.text = text;
+        }
+    }
+
+    private final int maxSectionChars;
+    private final StringBuilder bodyText = new StringBuilder();
+    private int[] candidateLines = new int[64];
+    private int[] textStarts = new int[64];
+    private int candidateCount;
+
+    public SectionTextExtractor(int maxSectionChars) throws IOException {
+        super();
+        this.maxSectionChars = maxSectionChars;
+    }
+
+    /** Reads {@code PDF_SECTION_TEXT_CHARS} (default 2000), the most body text kept per section. */
+    public static int maxSectionCharsFromEnvironment() {
+        return Settings.intFromEnv("PDF_SECTION_TEXT_CHARS", 2000);
+    }
+
+    public int getMaxSectionChars() {
+        return maxSectionChars;
+    }
+
+    @Override
+    public DocumentLayout extractLayout(PDDocument document) throws IOException {
+        bodyText.setLength(0);
+        candidateCount = 0;
+        return super.extractLayout(document);
+    }
+
+    @Override
+    protected void onPageLine(LineStore pageLines, int line, int retainedIndex) {
+        if (retainedIndex >= 0) {
+            if (candidateCount == candidateLines.length) {
+                candidateLines = Arrays.copyOf(candidateLines, candidateCount * 2);
+                textStarts = Arrays.copyOf(textStarts, candidateCount * 2);
+            }
+            candidateLines[candidateCount] = retainedIndex;
+            textStarts[candidateCount] = bodyText.length();
+            candidateCount++;
+        } else if (candidateCount > 0) {
+            appendBounded(bodyText, textStarts[candidateCount - 1], pageLines, line);
+        }
+    }
+
+    /**
+     * Returns the headings of the layout from the last {@link #extractLayout} call, each with its body
+     * text. The headings are the same as {@link #extractHeadings(DocumentLayout)} returns.
+     */
+    public List<Section> extractSections(DocumentLayout layout) {
+        float avgBodyFontSize = layout.bodyFontStatistics.mode();
+        LineStore lines = layout.lines;
+        List<Section> sections = new ArrayList<>();
+        OutlineData heading = null;
+        StringBuilder text = new StringBuilder();
+
+        for (int c = 0; c < candidateCount; c++) {
+            int line = candidateLines[c];
+            int textEnd = c + 1 < candidateCount ? textStarts[c + 1] : bodyText.length();
+            String level = HeadingClassifier.level(lines, layout.features, line, avgBodyFontSize);
+            if (level != null) {
+                if (heading != null) {
+                    sections.add(new Section(heading, text.toString()));
+                }
+                heading = new OutlineData(level, lines.text(line), lines.page(line));
+                text.setLength(0);
+            } else if (heading != null) {
+                appendBounded(text, 0, lines, line);
+            } else {
+                continue;
+            }
+            int room = maxSectionChars - text.length();
+            if (room > 1 && textEnd > textStarts[c]) {
+                if (text.length() > 0
+                        && needsSpace(Character.codePointBefore(text, text.length()), Character.codePointAt(bodyText, textStarts[c]))) {
+                    text.append(' ');
+                    room--;
+                }
+                text.append(bodyText, textStarts[c], Math.min(textEnd, textStarts[c] + room));
+            }
+        }
+        if (heading != null) {
+            sections.add(new Section(heading, text.toString()));
+        }
+        return sections;
+    }
+
+    /**
+     * Appends a line to the section text starting at {@code sectionStart}, space-separated where
+     * {@link #needsSpace} says so, and capped.
+     */
+    private void appendBounded(StringBuilder target, int sectionStart, LineStore lines, int line) {
+        int room = maxSectionChars - (target.length() - sectionStart);
+        if (room <= 1 || lines.textLength(line) == 0) {
+            return;
+        }
+        if (target.length() > sectionStart && needsSpace(Character.codePointBefore(target, target.length()), firstCodePoint(lines, line))) {
+            target.append(' ');
+            room--;
+        }
+        lines.appendText(line, target, room);
+    }
+
+    private static int firstCodePoint(LineStore lines, int line) {
+        char first = lines.charAt(line, 0);
+        if (Character.isHighSurrogate(first) && lines.textLength(line) > 1) {
+            return Character.toCodePoint(first, lines.charAt(line, 1));
+        }
+        return first;
+    }
+
+    /**
+     * Whether joining two lines needs a space between them. Chinese and Japanese are written without
+     * spaces between words, so a line break next to an ideograph, kana or CJK punctuation is dropped
+     * rather than turned into a space that splits a word.
+     */
+    static boolean needsSpace(int before, int after) {
+        return !isUnspaced(before) && !isUnspaced(after);
+    }
+
+    private static boolean isUnspaced(int codePoint) {
+        if (codePoint < 0x2E80) {
+            return false;
+        }
+        if ((codePoint >= 0x3000 && codePoint <= 0x303F) || (codePoint >= 0xFF00 && codePoint <= 0xFFEF) || codePoint == 0x30FC) {
+            return true; // CJK and fullwidth punctuation, Katakana prolonged sound mark
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.core;
+
+/**
+ * Reads optional settings from environment variables, the way both pipelines take their input and
+ * output directories.
+ */
+public final class Settings {
+
+    private Settings() {
+    }
+
+    public static String stringFromEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public static boolean booleanFromEnv(String name) {
+        return Boolean.parseBoolean(System.getenv(name));
+    }
+
+    /** Positive integer setting; missing, invalid or non-positive values fall back to {@code defaultValue}. */
+    public static int intFromEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid " + name + "=" + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event for one pipeline stage of one document. Only recorded while a recording
+ * is running, e.g. with {@code -XX:StartFlightRecording=filename=run.jfr}; otherwise it costs nothing.
+ */
+@Name("org.example.Stage")
+@Label("Pipeline Stage")
+@Category("PDF Pipeline")
+@Description("Time spent in one stage of processing a document or collection")
+class StageEvent extends Event {
+
+    @Label("Item")
+    String item;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Stage Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long stageDuration;
+}
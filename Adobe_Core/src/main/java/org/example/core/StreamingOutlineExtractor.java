@@ -0,0 +1,75 @@
+package org.example.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+import java.io.IOException;
+
+/**
+ * Bounded-memory variant of {@link OutlineExtractor} for documents of any length.
+ *
+ * <p>Lines are handed off at the end of every page: the running body-font histogram has already
+ * counted them, and only lines that could still become headings are kept, together with the lines of
+ * page 1 that title detection needs. Heap usage therefore depends on the number of heading candidates
+ * rather than on the page count. The result is identical to the in-memory extractor because a line is
+ * dropped only when it stays below every heading threshold for the smallest possible body font size.
+ */
+public class StreamingOutlineExtractor extends OutlineExtractor {
+
+    private LineStore retainedLines = new LineStore();
+    private LayoutFeatures retainedFeatures = new LayoutFeatures();
+    private final LayoutFeatures pageFeatures = new LayoutFeatures();
+
+    public StreamingOutlineExtractor() throws IOException {
+        super();
+    }
+
+    /**
+     * Computes the layout features of the finished page while all of its lines are still there, so gaps,
+     * rows and margin texts of the kept lines are the same as in the in-memory extractor.
+     */
+    @Override
+    protected void endPage(PDPage page) throws IOException {
+        textLines.sortByPosition();
+        PDRectangle mediaBox = page.getMediaBox();
+        pageFeatures.clear();
+        pageFeatures.addPage(textLines, 0, textLines.size(), mediaBox.getWidth(), mediaBox.getHeight());
+        for (int i = 0; i < textLines.size(); i++) {
+            boolean candidate = isHeadingCandidate(textLines.fontSize(i), textLines.isBold(i));
+            if (textLines.page(i) == 1 || candidate) {
+                retainedLines.addFrom(textLines, i);
+                retainedFeatures.addFrom(pageFeatures, i);
+            }
+            onPageLine(textLines, i, candidate ? retainedLines.size() - 1 : -1);
+        }
+        retainedFeatures.addMarginCounts(pageFeatures);
+        textLines.clear();
+        super.endPage(page);
+    }
+
+    /**
+     * Called for every line of a finished page in reading order, before the page's lines are released.
+     * {@code retainedIndex} is the line's index in the layout's lines when it is a heading candidate,
+     * and -1 otherwise.
+     */
+    protected void onPageLine(LineStore pageLines, int line, int retainedIndex) {
+    }
+
+    /**
+     * Returns a layout holding only the retained lines and their features, together with the body-font
+     * statistics that were collected over every line of the document.
+     */
+    @Override
+    public DocumentLayout extractLayout(PDDocument document) throws IOException {
+        retainedLines = new LineStore();
+        retainedFeatures = new LayoutFeatures();
+        DocumentLayout pages = super.extractLayout(document);
+        DocumentLayout layout = new DocumentLayout(retainedLines, retainedFeatures, pages.bodyFontStatistics,
+                pages.pageWidths, pages.pageHeights);
+        layout.textRuns = pages.textRuns;
+        layout.mergedRuns = pages.mergedRuns;
+        layout.sortNanos = pages.sortNanos;
+        return layout;
+    }
+}
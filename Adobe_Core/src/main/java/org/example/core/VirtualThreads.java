@@ -0,0 +1,24 @@
+package org.example.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Virtual threads for both pipelines. They need Java 21 and the build targets 17, so the factory is
+ * looked up reflectively and callers supply the platform pool to use on older JVMs.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()}, or {@code fallback} when the running JVM lacks it. */
+    public static ExecutorService newPerTaskExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return fallback.get();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayoutFeaturesTest {
+
+    private static final float PAGE_WIDTH = 612;
+    private static final float PAGE_HEIGHT = 792;
+    private static final float HEADER_Y = 30;
+    private static final float FOOTER_Y = 770;
+
+    @Test
+    void detectsPageNumbers() {
+        String[] pageNumbers = {"12", "- 12 -", "Page 3", "page 3 of 10", "3 of 10", "iv", "xii"};
+        String[] others = {"Introduction", "3 Results", "Chapter 4", "CV", "Civil engineering", "2024 Annual Report"};
+
+        LineStore lines = new LineStore();
+        float y = 100;
+        for (String text : pageNumbers) {
+            lines.add(text, y += 20, 72, 200, 10, false, 1);
+        }
+        for (String text : others) {
+            lines.add(text, y += 20, 72, 200, 10, false, 1);
+        }
+        LayoutFeatures features = compute(lines, 1);
+
+        for (int i = 0; i < pageNumbers.length; i++) {
+            assertTrue(features.isPageNumber(i), pageNumbers[i]);
+        }
+        for (int i = 0; i < others.length; i++) {
+            assertFalse(features.isPageNumber(pageNumbers.length + i), others[i]);
+        }
+    }
+
+    @Test
+    void measuresNumberingDepth() {
+        String[] texts = {"3 Results", "3. Results", "3.1 Methods", "3.1.2 Sampling", "IV. Discussion", "A) Scope",
+                "Chapter 3", "Appendix B", "2024 Annual Report", "1.2024 figures", "3.1", "Results", "Part"};
+        int[] depths = {1, 1, 2, 3, 1, 0, 1, 1, 0, 0, 0, 0, 0};
+
+        LineStore lines = new LineStore();
+        float y = 100;
+        for (String text : texts) {
+            lines.add(text, y += 20, 72, 300, 10, false, 1);
+        }
+        LayoutFeatures features = compute(lines, 1);
+
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(depths[i], features.numberingDepth(i), texts[i]);
+        }
+    }
+
+    @Test
+    void marksRunningHeadersAndFootersRepeated() {
+        LineStore lines = new LineStore();
+        for (int page = 1; page <= 4; page++) {
+            lines.add("Annual Report 2024", HEADER_Y, 72, 300, 9, false, page);
+            lines.add("Section heading " + page, 200, 72, 300, 16, true, page);
+            lines.add("Page " + page + " of 4", FOOTER_Y, 280, 330, 9, false, page);
+        }
+        LayoutFeatures features = compute(lines, 4);
+
+        for (int page = 0; page < 4; page++) {
+            int header = page * 3;
+            assertTrue(features.isInMargin(header));
+            assertTrue(features.isRepeated(header), "header on page " + (page + 1));
+            assertFalse(features.isInMargin(header + 1));
+            assertFalse(features.isRepeated(header + 1), "heading on page " + (page + 1));
+            assertTrue(features.isRepeated(header + 2), "footer on page " + (page + 1));
+        }
+    }
+
+    @Test
+    void doesNotMarkOneOffMarginTextRepeated() {
+        LineStore lines = new LineStore();
+        lines.add("Executive Summary", HEADER_Y, 72, 300, 18, true, 1);
+        for (int page = 2; page <= 6; page++) {
+            lines.add("Annual Report", HEADER_Y, 72, 300, 9, false, page);
+        }
+        LayoutFeatures features = compute(lines, 6);
+
+        assertTrue(features.isInMargin(0));
+        assertFalse(features.isRepeated(0));
+        assertTrue(features.isRepeated(1));
+    }
+
+    /** "a~" and "b_" have the same 31-based hash code; margin texts must be told apart by content. */
+    @Test
+    void keepsMarginTextsWithEqualHashCodesApart() {
+        assertEquals("reporta~".hashCode(), "reportb_".hashCode());
+
+        LineStore lines = new LineStore();
+        lines.add("Report b_", HEADER_Y, 72, 300, 18, true, 1);
+        for (int page = 2; page <= 4; page++) {
+            lines.add("Report a~", HEADER_Y, 72, 300, 9, false, page);
+        }
+        LayoutFeatures features = compute(lines, 4);
+
+        assertFalse(features.isRepeated(0));
+        assertTrue(features.isRepeated(1));
+    }
+
+    @Test
+    void measuresGapsAndRowPeers() {
+        LineStore lines = new LineStore();
+        lines.add("Heading", 100, 72, 200, 10, true, 1);
+        lines.add("Cell A", 130, 72, 150, 10, false, 1);
+        lines.add("Cell B", 130, 200, 280, 10, false, 1);
+        lines.add("Cell C", 130, 300, 380, 10, false, 1);
+        lines.add("Body", 142, 72, 540, 10, false, 1);
+        LayoutFeatures features = compute(lines, 1);
+
+        assertEquals(10f, features.gapAbove(0), 1e-4);
+        assertEquals(3f, features.gapBelow(0), 1e-4);
+        assertEquals(0, features.rowPeers(0));
+        assertEquals(2, features.rowPeers(1));
+        assertEquals(2, features.rowPeers(3));
+        assertEquals(1.2f, features.gapAbove(4), 1e-4);
+        assertEquals(1f, features.widthRatio(4), 1e-4);
+        assertEquals(0, features.indentLevel(1));
+        assertEquals(1, features.indentLevel(2));
+        assertEquals(2, features.indentLevel(3));
+    }
+
+    @Test
+    void keepsFeaturesIdenticalWhenPagesAreComputedSeparately() {
+        LineStore lines = new LineStore();
+        for (int page = 1; page <= 4; page++) {
+            lines.add("Running header", HEADER_Y, 72, 300, 9, false, page);
+            lines.add("Body text on page " + page, 300, 72, 540, 10, false, page);
+        }
+        LayoutFeatures whole = compute(lines, 4);
+
+        LayoutFeatures merged = new LayoutFeatures();
+        LayoutFeatures page = new LayoutFeatures();
+        for (int first = 0; first < lines.size(); first += 2) {
+            page.clear();
+            page.addPage(lines, first, first + 2, PAGE_WIDTH, PAGE_HEIGHT);
+            merged.addAll(page);
+        }
+
+        assertEquals(whole.size(), merged.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertEquals(whole.isRepeated(i), merged.isRepeated(i));
+            assertEquals(whole.gapAbove(i), merged.gapAbove(i));
+            assertEquals(whole.widthRatio(i), merged.widthRatio(i));
+        }
+    }
+
+    @Test
+    void classifierDropsPageNumbersAndRunningHeaders() {
+        LineStore lines = new LineStore();
+        for (int page = 1; page <= 3; page++) {
+            lines.add("ANNUAL REPORT", HEADER_Y, 72, 300, 20, true, page);
+            lines.add("Overview " + page, 200, 72, 300, 20, true, page);
+            lines.add("Body text that fills the page", 240, 72, 540, 10, false, page);
+            lines.add("- " + page + " -", FOOTER_Y, 290, 320, 20, true, page);
+        }
+        LayoutFeatures features = compute(lines, 3);
+
+        for (int page = 0; page < 3; page++) {
+            int first = page * 4;
+            assertNull(HeadingClassifier.level(lines, features, first, 10), "running header");
+            assertEquals("H1", HeadingClassifier.level(lines, features, first + 1, 10), "heading");
+            assertNull(HeadingClassifier.level(lines, features, first + 2, 10), "body text");
+            assertNull(HeadingClassifier.level(lines, features, first + 3, 10), "page number");
+        }
+    }
+
+    @Test
+    void classifierLevelsNumberedHeadingsByDepth() {
+        LineStore lines = new LineStore();
+        lines.add("2.1 Background", 200, 72, 300, 16, true, 1);
+        lines.add("2.1.3 Sampling", 240, 72, 300, 10, true, 1);
+        lines.add("Body text that fills the page", 260, 72, 540, 10, false, 1);
+        LayoutFeatures features = compute(lines, 1);
+
+        assertEquals("H2", HeadingClassifier.level(lines, features, 0, 10));
+        assertEquals("H3", HeadingClassifier.level(lines, features, 1, 10));
+        assertNull(HeadingClassifier.level(lines, features, 2, 10));
+    }
+
+    private static LayoutFeatures compute(LineStore lines, int pages) {
+        float[] widths = new float[pages];
+        float[] heights = new float[pages];
+        Arrays.fill(widths, PAGE_WIDTH);
+        Arrays.fill(heights, PAGE_HEIGHT);
+        return LayoutFeatures.compute(lines, widths, heights);
+    }
+}
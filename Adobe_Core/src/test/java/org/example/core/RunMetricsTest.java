@@ -0,0 +1,45 @@
+package org.example.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunMetricsTest {
+
+    @Test
+    void listsOnlyTheMostRecentItems() {
+        RunMetrics metrics = new RunMetrics("test", null, 3);
+        for (int i = 0; i < 10; i++) {
+            metrics.startDocument("doc" + i).finish("processed");
+        }
+        metrics.startCollection("collection").finish("processed");
+
+        RunMetrics.RunReport report = metrics.report();
+        assertEquals(3, report.documents.size());
+        assertEquals("doc7", report.documents.get(0).name);
+        assertEquals("doc9", report.documents.get(2).name);
+        assertEquals(7, report.omitted_documents);
+        assertEquals(1, report.collections.size());
+        assertEquals(0, report.omitted_collections);
+        assertEquals(10, report.counters.get("documents"));
+        assertEquals(10, report.document_latency.count);
+    }
+
+    @Test
+    void keepsExactCountsAndBoundedPercentilesPastTheReservoir() {
+        RunMetrics metrics = new RunMetrics("test", null, 0);
+        int documents = 50_000;
+        for (int i = 0; i < documents; i++) {
+            metrics.startDocument("doc").finish(i % 10 == 0 ? "failed" : "processed");
+        }
+
+        RunMetrics.RunReport report = metrics.report();
+        assertTrue(report.documents.isEmpty());
+        assertEquals(documents, report.omitted_documents);
+        assertEquals(documents, report.document_latency.count);
+        assertEquals(documents / 10, report.counters.get("failed_documents"));
+        assertTrue(report.document_latency.p50_ms <= report.document_latency.p99_ms);
+        assertTrue(report.document_latency.p99_ms <= report.document_latency.max_ms);
+    }
+}